@@ -0,0 +1,47 @@
+// k6 load test for POST /api/v1/query.
+// Run the app once with VIRTUAL_THREADS_ENABLED=false and once with true, then compare
+// http_req_duration percentiles and the error rate at the same VUS.
+//   k6 run -e BASE_URL=http://localhost:8080 -e MODULE=my-module -e VUS=1000 load-test/query-load.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const baseUrl = __ENV.BASE_URL || 'http://localhost:8080';
+const vus = Number(__ENV.VUS || 500);
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 10,
+      stages: [
+        { duration: '1m', target: vus },
+        { duration: '3m', target: vus },
+        { duration: '30s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const questions = [
+  'Which endpoints create or update employees?',
+  'How are chunks embedded and stored in Neo4j?',
+  'Which types depend on the graph writer?',
+];
+
+export default function () {
+  const body = JSON.stringify({
+    question: questions[Math.floor(Math.random() * questions.length)],
+    moduleName: __ENV.MODULE,
+    topK: 10,
+    hops: 2,
+    generateAnswer: __ENV.GENERATE !== 'false',
+  });
+  const res = http.post(`${baseUrl}/api/v1/query`, body, {
+    headers: { 'Content-Type': 'application/json' },
+    timeout: '180s',
+  });
+  check(res, { 'status is 200': (r) => r.status === 200 });
+}
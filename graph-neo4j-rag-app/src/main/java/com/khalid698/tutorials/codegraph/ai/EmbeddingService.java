@@ -5,8 +5,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -30,58 +36,100 @@ public class EmbeddingService {
 
     private static final Logger log = LoggerFactory.getLogger(EmbeddingService.class);
 
+    private static final String FIND_EXISTING_CHUNKS = """
+            UNWIND $ids AS id
+            MATCH (c:Chunk {id: id})
+            RETURN c.id AS id, c.textHash AS textHash, c.embeddingModel AS embeddingModel, c.embedding AS embedding
+            """;
+
     private final EmbeddingModel embeddingModel;
+    // only present with app.embedding.store-mirror; otherwise vectors live on :Chunk alone
     private final EmbeddingStore<TextSegment> embeddingStore;
     private final GraphWriter graphWriter;
     private final Neo4jClient neo4jClient;
     private final String embeddingModelName;
+    private final ExecutorService embeddingExecutor;
+    private final int batchSize;
+    private final int batchMaxChars;
+    private final int lookupPageSize;
 
     public EmbeddingService(EmbeddingModel embeddingModel,
-                            EmbeddingStore<TextSegment> embeddingStore,
+                            ObjectProvider<EmbeddingStore<TextSegment>> embeddingStore,
                             GraphWriter graphWriter,
                             Neo4jClient neo4jClient,
-                            @Value("${app.embedding-model:text-embedding-3-small}") String embeddingModelName) {
+                            @Value("${app.embedding-model:text-embedding-3-small}") String embeddingModelName,
+                            @Qualifier("embeddingExecutor") ExecutorService embeddingExecutor,
+                            @Value("${app.embedding.batch-size:64}") int batchSize,
+                            @Value("${app.embedding.batch-max-chars:32000}") int batchMaxChars,
+                            @Value("${app.embedding.lookup-page-size:1000}") int lookupPageSize) {
+        if (batchSize <= 0 || batchMaxChars <= 0 || lookupPageSize <= 0) {
+            throw new IllegalArgumentException("embedding batch size, char budget and lookup page size must be positive");
+        }
         this.embeddingModel = embeddingModel;
-        this.embeddingStore = embeddingStore;
+        this.embeddingStore = embeddingStore.getIfAvailable();
         this.graphWriter = graphWriter;
         this.neo4jClient = neo4jClient;
         this.embeddingModelName = embeddingModelName;
+        this.embeddingExecutor = embeddingExecutor;
+        this.batchSize = batchSize;
+        this.batchMaxChars = batchMaxChars;
+        this.lookupPageSize = lookupPageSize;
     }
 
     public UpsertResult embedAndPersistChunks(List<ChunkDoc> chunks) {
+        return embedAndPersistChunks(chunks, count -> {
+        });
+    }
+
+    /**
+     * Same as {@link #embedAndPersistChunks(List)}, reporting the number of chunks whose embedding
+     * was resolved (reused or computed) to {@code onEmbedded} as batches complete.
+     */
+    public UpsertResult embedAndPersistChunks(List<ChunkDoc> chunks, IntConsumer onEmbedded) {
         if (chunks == null || chunks.isEmpty()) {
             return UpsertResult.empty();
         }
 
         log.info("Starting embedding for {} chunk docs", chunks.size());
 
-        List<ChunkNode> chunkNodes = new ArrayList<>();
-        List<Embedding> embeddings = new ArrayList<>();
-        List<TextSegment> segments = new ArrayList<>();
-        for (ChunkDoc chunk : chunks) {
-            if (!StringUtils.hasText(chunk.text())) {
-                continue;
-            }
-
-            ExistingChunk existing = findExisting(chunk.id());
-            List<Double> embeddingVector = null;
-            Embedding embeddingObj = null;
-            boolean reused = false;
+        List<ChunkDoc> candidates = chunks.stream()
+                .filter(chunk -> StringUtils.hasText(chunk.text()))
+                .toList();
 
+        Map<String, ExistingChunk> existingById = findExisting(candidates.stream().map(ChunkDoc::id).toList());
+        List<float[]> reusedVectors = new ArrayList<>(candidates.size());
+        List<ChunkDoc> pending = new ArrayList<>();
+        for (ChunkDoc chunk : candidates) {
+            ExistingChunk existing = chunk.id() == null ? null : existingById.get(chunk.id());
             if (existing != null
                     && embeddingModelName.equals(existing.embeddingModel())
                     && chunk.textHash().equals(existing.textHash())
                     && existing.embedding() != null) {
-                embeddingVector = existing.embedding();
-                embeddingObj = fromList(embeddingVector);
-                reused = true;
+                reusedVectors.add(existing.embedding());
             } else {
-                try {
-                    embeddingObj = embeddingModel.embed(chunk.text()).content();
-                    embeddingVector = toVector(embeddingObj);
-                } catch (Exception e) {
-                    log.info("Failed to embed chunk {} (module={}, owner={}, sig={}): {}", chunk.id(), chunk.moduleName(), chunk.ownerFqcn(), chunk.ownerSignature(), e.getMessage());
-                }
+                reusedVectors.add(null);
+                pending.add(chunk);
+            }
+        }
+        log.info("Reusing {} stored embeddings, embedding {} chunks in batches of up to {} ({} chars)",
+                candidates.size() - pending.size(), pending.size(), batchSize, batchMaxChars);
+
+        onEmbedded.accept(candidates.size() - pending.size());
+        Embedding[] computed = embedInBatches(pending, onEmbedded);
+
+        List<ChunkNode> chunkNodes = new ArrayList<>();
+        List<Embedding> embeddings = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        int pendingIndex = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            ChunkDoc chunk = candidates.get(i);
+            float[] embeddingVector = reusedVectors.get(i);
+            Embedding embeddingObj = null;
+            boolean reused = embeddingVector != null;
+
+            if (!reused) {
+                embeddingObj = computed[pendingIndex++];
+                embeddingVector = embeddingObj == null ? null : embeddingObj.vector();
             }
             log.info("Add new chunk ChunkNode: {}", chunk.id());
             chunkNodes.add(new ChunkNode(
@@ -99,7 +147,10 @@ public class EmbeddingService {
                     embeddingVector
             ));
 
-            if (embeddingVector != null && embeddingObj != null && !reused) {
+            if (reused || embeddingStore == null) {
+                continue;
+            }
+            if (embeddingVector != null && embeddingObj != null) {
                 embeddings.add(embeddingObj);
 
                 Map<String, Object> meta = new HashMap<>();
@@ -119,10 +170,7 @@ public class EmbeddingService {
                 } catch (Exception e) {
                     log.info("Failed to create TextSegment for chunk {}: {}", chunk.id(), e.getMessage());
                 }
-                
-                if (!reused) {
-                    log.info("Embedded chunk {} with vector size {}", chunk.id(), embeddingObj.vector() != null ? embeddingObj.vector().length : -1);
-                }
+                log.info("Embedded chunk {} with vector size {}", chunk.id(), embeddingObj.vector() != null ? embeddingObj.vector().length : -1);
             } else {
                 log.info("Skipping embedding persistence for chunk {} (module={}, owner={}, sig={}) because embedding was null",
                         chunk.id(), chunk.moduleName(), chunk.ownerFqcn(), chunk.ownerSignature());
@@ -147,56 +195,115 @@ public class EmbeddingService {
         return upsertResult;
     }
 
-    private ExistingChunk findExisting(String id) {
-        if (!StringUtils.hasText(id)) {
-            return null;
+    /**
+     * Embeds the given chunks with one {@code embedAll} call per batch and runs up to
+     * {@code app.embedding.parallelism} batches concurrently. The returned array is aligned
+     * with {@code chunks}; entries stay {@code null} for chunks that could not be embedded.
+     */
+    private Embedding[] embedInBatches(List<ChunkDoc> chunks, IntConsumer onEmbedded) {
+        Embedding[] results = new Embedding[chunks.size()];
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int[] range : partition(chunks)) {
+            int from = range[0];
+            int to = range[1];
+            futures.add(CompletableFuture.runAsync(() -> {
+                List<Embedding> batch = embedBatch(chunks.subList(from, to));
+                for (int i = 0; i < batch.size(); i++) {
+                    results[from + i] = batch.get(i);
+                }
+                onEmbedded.accept(batch.size());
+            }, embeddingExecutor));
         }
-        List<Map<String, Object>> rows = neo4jClient.executeRead(
-                "MATCH (c:Chunk {id: $id}) RETURN c.textHash AS textHash, c.embeddingModel AS embeddingModel, c.embedding AS embedding",
-                Map.of("id", id));
-
-        if (rows == null || rows.isEmpty()) {
-            return null;
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Embedding interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Embedding batches failed", e.getCause());
         }
-        Map<String, Object> row = rows.get(0);
-        String textHash = Optional.ofNullable(row.get("textHash")).map(Object::toString).orElse(null);
-        String model = Optional.ofNullable(row.get("embeddingModel")).map(Object::toString).orElse(null);
-        Object embeddingVal = row.get("embedding");
-        List<Double> embedding = toVector(embeddingVal);
-
-        return new ExistingChunk(textHash, model, embedding);
+        return results;
     }
 
-    @SuppressWarnings("unchecked")
-    private List<Double> toVector(Object embeddingVal) {
-        if (embeddingVal == null) {
-            return null;
-        }
-        if (embeddingVal instanceof List<?> list) {
-            return list.stream()
-                    .filter(Number.class::isInstance)
-                    .map(Number.class::cast)
-                    .map(Number::doubleValue)
-                    .toList();
+    private List<int[]> partition(List<ChunkDoc> chunks) {
+        List<int[]> ranges = new ArrayList<>();
+        int from = 0;
+        int chars = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            int length = chunks.get(i).text().length();
+            if (i > from && (i - from >= batchSize || chars + length > batchMaxChars)) {
+                ranges.add(new int[]{from, i});
+                from = i;
+                chars = 0;
+            }
+            chars += length;
         }
-        if (embeddingVal instanceof dev.langchain4j.data.embedding.Embedding embedding) {
-            List<Float> vector = embedding.vectorAsList();
-            return vector == null ? null : vector.stream().map(Float::doubleValue).collect(Collectors.toList());
+        if (from < chunks.size()) {
+            ranges.add(new int[]{from, chunks.size()});
         }
-        return null;
+        return ranges;
     }
 
-    private Embedding fromList(List<Double> embeddingVector) {
-        if (embeddingVector == null) {
-            return null;
+    private List<Embedding> embedBatch(List<ChunkDoc> batch) {
+        try {
+            List<TextSegment> inputs = batch.stream().map(chunk -> TextSegment.from(chunk.text())).toList();
+            List<Embedding> embedded = embeddingModel.embedAll(inputs).content();
+            if (embedded != null && embedded.size() == batch.size()) {
+                return embedded;
+            }
+            log.info("Embedding batch of {} chunks returned {} vectors; retrying chunks individually",
+                    batch.size(), embedded == null ? 0 : embedded.size());
+        } catch (Exception e) {
+            log.info("Failed to embed batch of {} chunks, retrying individually: {}", batch.size(), e.getMessage());
         }
-        float[] arr = new float[embeddingVector.size()];
-        for (int i = 0; i < embeddingVector.size(); i++) {
-            arr[i] = embeddingVector.get(i).floatValue();
+
+        // fall back to per-chunk calls so one oversized or rejected input does not drop the whole batch
+        List<Embedding> embedded = new ArrayList<>(batch.size());
+        for (ChunkDoc chunk : batch) {
+            Embedding embedding = null;
+            try {
+                embedding = embeddingModel.embed(chunk.text()).content();
+            } catch (Exception e) {
+                log.info("Failed to embed chunk {} (module={}, owner={}, sig={}): {}", chunk.id(), chunk.moduleName(), chunk.ownerFqcn(), chunk.ownerSignature(), e.getMessage());
+            }
+            embedded.add(embedding);
         }
-        return Embedding.from(arr);
+        return embedded;
+    }
+
+    /**
+     * Loads hash, model and vector of already stored chunks with one {@code UNWIND} query per
+     * page of {@code app.embedding.lookup-page-size} ids instead of one query per chunk.
+     */
+    private Map<String, ExistingChunk> findExisting(List<String> ids) {
+        List<String> distinctIds = ids.stream()
+                .filter(StringUtils::hasText)
+                .distinct()
+                .toList();
+        // all pages are read in one transaction; the map is rebuilt if the driver retries it
+        Map<String, ExistingChunk> existing = neo4jClient.readTransaction(tx -> {
+            Map<String, ExistingChunk> found = new HashMap<>();
+            for (int from = 0; from < distinctIds.size(); from += lookupPageSize) {
+                List<String> page = distinctIds.subList(from, Math.min(distinctIds.size(), from + lookupPageSize));
+                List<Map<String, Object>> rows = tx.run(FIND_EXISTING_CHUNKS, Map.of("ids", page));
+                for (Map<String, Object> row : rows) {
+                    String id = Optional.ofNullable(row.get("id")).map(Object::toString).orElse(null);
+                    if (id == null) {
+                        continue;
+                    }
+                    String textHash = Optional.ofNullable(row.get("textHash")).map(Object::toString).orElse(null);
+                    String model = Optional.ofNullable(row.get("embeddingModel")).map(Object::toString).orElse(null);
+                    float[] embedding = VectorCodec.toFloats(row.get("embedding"));
+                    found.put(id, new ExistingChunk(textHash, model, embedding));
+                }
+            }
+            return found;
+        });
+        log.info("Found {} stored chunks for {} candidate ids", existing.size(), distinctIds.size());
+        return existing;
     }
 
-    private record ExistingChunk(String textHash, String embeddingModel, List<Double> embedding) {
+    private record ExistingChunk(String textHash, String embeddingModel, float[] embedding) {
     }
 }
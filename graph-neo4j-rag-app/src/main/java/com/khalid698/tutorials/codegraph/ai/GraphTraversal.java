@@ -0,0 +1,281 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.neo4j.driver.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.khalid698.tutorials.codegraph.ai.dto.NodeDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.RelationshipDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.SubgraphDTO;
+import com.khalid698.tutorials.codegraph.neo4j.CypherTemplates;
+import com.khalid698.tutorials.codegraph.neo4j.Neo4jClient;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection;
+
+/**
+ * Breadth-first expansion around a set of seed nodes, one bounded query per hop. Each hop only
+ * follows relationships of the frontier, so the cost grows with the result instead of with the
+ * variable-length paths of the whole neighbourhood. The expansion stops early once the node or
+ * relationship budget is used up; nodes with more than {@code app.graph.traversal.hub-degree}
+ * relationships are returned but not expanded, and every node contributes at most
+ * {@code app.graph.traversal.max-degree} neighbours per hop. Any of these cuts marks the result
+ * as {@link SubgraphDTO#truncated() truncated}.
+ */
+@Component
+public class GraphTraversal {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphTraversal.class);
+
+    private static final String FRONTIER_TEMPLATE = "cypher/expandFrontier.cypher";
+    private static final String PROJECTED_TEMPLATE = "cypher/projectionSubgraph.cypher";
+
+    public enum Direction {
+        OUTGOING, INCOMING, BOTH
+    }
+
+    /**
+     * One traversal request. An empty {@code relationshipTypes} follows every type; {@code null}
+     * budgets use the configured limits, larger ones are capped to them.
+     */
+    public record Spec(int hops, Set<String> relationshipTypes, Direction direction,
+                       Integer maxNodes, Integer maxRelationships) {
+
+        public static Spec of(int hops) {
+            return new Spec(hops, Set.of(), Direction.BOTH, null, null);
+        }
+    }
+
+    private final Neo4jClient neo4jClient;
+    private final CypherTemplates templates;
+    private final int maxHops;
+    private final int maxNodes;
+    private final int maxRelationships;
+    private final int maxDegree;
+    private final int hubDegree;
+
+    public GraphTraversal(Neo4jClient neo4jClient,
+                          CypherTemplates templates,
+                          @Value("${app.graph.traversal.max-hops:3}") int maxHops,
+                          @Value("${app.graph.traversal.max-nodes:500}") int maxNodes,
+                          @Value("${app.graph.traversal.max-relationships:2000}") int maxRelationships,
+                          @Value("${app.graph.traversal.max-degree:50}") int maxDegree,
+                          @Value("${app.graph.traversal.hub-degree:500}") int hubDegree) {
+        this.neo4jClient = neo4jClient;
+        this.templates = templates;
+        this.maxHops = Math.max(0, maxHops);
+        this.maxNodes = Math.max(1, maxNodes);
+        this.maxRelationships = Math.max(1, maxRelationships);
+        this.maxDegree = Math.max(1, maxDegree);
+        this.hubDegree = Math.max(1, hubDegree);
+        templates.require(FRONTIER_TEMPLATE, PROJECTED_TEMPLATE);
+    }
+
+    /**
+     * Runs {@code seedCypher}, which returns element rows as read by {@link SubgraphCollector}, and
+     * expands from its nodes. Seed nodes are always expanded, whatever their degree.
+     */
+    public CompletableFuture<SubgraphDTO> expandAsync(String seedCypher, Map<String, Object> seedParams, Spec spec) {
+        Traversal traversal = new Traversal(spec);
+        return neo4jClient.streamAsync(seedCypher, seedParams, SubgraphCollector::toElement, traversal::addSeed)
+                .thenCompose(count -> step(traversal, traversal.seeds(), 1));
+    }
+
+    /**
+     * The same expansion answered from an in-memory projection: the breadth-first search runs over
+     * its arrays and only the result is loaded from Neo4j, together with the {@code chunkIds}.
+     * {@code spec.relationshipTypes()} must all be projected types. Degree caps do not apply, as
+     * walking the arrays costs nothing per edge; the node and relationship budgets do.
+     */
+    public CompletableFuture<SubgraphDTO> expandProjectedAsync(GraphProjection projection, int[] seeds,
+                                                               List<String> chunkIds, Spec spec) {
+        Traversal traversal = new Traversal(spec);
+        Set<GraphProjection.RelationshipType> types = new HashSet<>();
+        traversal.relationshipTypes.forEach(type -> types.add(GraphProjection.RelationshipType.valueOf(type)));
+        int[] reached = projection.neighbourhood(seeds, traversal.hops, GraphProjection.mask(types), traversal.direction);
+        int room = Math.max(0, traversal.nodeBudget - seeds.length - chunkIds.size());
+        boolean truncated = reached.length > room;
+
+        List<String> nodeIds = new ArrayList<>();
+        Arrays.stream(seeds).mapToObj(projection::elementId).forEach(nodeIds::add);
+        Arrays.stream(reached).limit(room).mapToObj(projection::elementId).forEach(nodeIds::add);
+        Set<String> loadedTypes = new HashSet<>(traversal.relationshipTypes);
+        // DECLARES ties seed methods to their types, as the seed queries of expandAsync return them
+        loadedTypes.add(GraphProjection.RelationshipType.DECLARES.name());
+        Map<String, Object> params = new HashMap<>();
+        params.put("chunkIds", chunkIds);
+        params.put("nodeIds", nodeIds);
+        params.put("types", List.copyOf(loadedTypes));
+        // one row more than the budget allows tells the expansion it was cut short
+        params.put("maxRelationships", traversal.relationshipBudget + 1);
+        return SubgraphCollector.collectAsync(neo4jClient, templates.load(PROJECTED_TEMPLATE), params)
+                .thenApply(subgraph -> {
+                    List<RelationshipDTO> relationships = subgraph.relationships();
+                    boolean cut = truncated || relationships.size() > traversal.relationshipBudget;
+                    if (relationships.size() > traversal.relationshipBudget) {
+                        relationships = relationships.subList(0, traversal.relationshipBudget);
+                    }
+                    log.info("Expanded {} nodes and {} relationships from the projection of module {} (truncated={})",
+                            subgraph.nodes().size(), relationships.size(), projection.module(), cut);
+                    return new SubgraphDTO(subgraph.nodes(), relationships, cut);
+                });
+    }
+
+    private CompletableFuture<SubgraphDTO> step(Traversal traversal, List<String> frontier, int hop) {
+        if (!frontier.isEmpty() && hop <= traversal.hops && traversal.exhausted()) {
+            traversal.truncated = true;
+        }
+        if (frontier.isEmpty() || hop > traversal.hops || traversal.exhausted()) {
+            SubgraphDTO subgraph = traversal.build();
+            log.info("Expanded {} nodes and {} relationships in {} hops (truncated={})",
+                    subgraph.nodes().size(), subgraph.relationships().size(), hop - 1, subgraph.truncated());
+            return CompletableFuture.completedFuture(subgraph);
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("frontier", frontier);
+        params.put("types", List.copyOf(traversal.relationshipTypes));
+        params.put("direction", traversal.direction.name());
+        params.put("maxDegree", maxDegree + 1);
+        // one row more than the budget allows tells the traversal it was cut short
+        params.put("rowLimit", traversal.remainingRelationships() + 1);
+        return neo4jClient.queryAsync(templates.load(FRONTIER_TEMPLATE), params, GraphTraversal::toStep)
+                .thenCompose(steps -> step(traversal, traversal.accept(steps), hop + 1));
+    }
+
+    private static Step toStep(Record record) {
+        return new Step(
+                record.get("fromId").asString(),
+                new RelationshipDTO(record.get("relId").asString(),
+                        SubgraphCollector.text(record.get("type"), "REL"),
+                        record.get("sourceId").asString(),
+                        record.get("targetId").asString(),
+                        record.get("relProperties").asMap()),
+                new NodeDTO(record.get("id").asString(),
+                        SubgraphCollector.text(record.get("label"), "Node"),
+                        record.get("properties").asMap()),
+                record.get("degree").asLong());
+    }
+
+    private record Step(String fromId, RelationshipDTO relationship, NodeDTO node, long degree) {
+    }
+
+    /**
+     * Mutable state of one expansion. Hops run one after another, so it is never accessed
+     * concurrently.
+     */
+    private final class Traversal {
+
+        private final int hops;
+        private final Set<String> relationshipTypes;
+        private final Direction direction;
+        private final int nodeBudget;
+        private final int relationshipBudget;
+        private final Map<String, NodeDTO> nodes = new LinkedHashMap<>();
+        private final Map<String, RelationshipDTO> relationships = new LinkedHashMap<>();
+        private boolean truncated;
+
+        Traversal(Spec spec) {
+            this.hops = Math.min(maxHops, Math.max(0, spec.hops()));
+            this.relationshipTypes = spec.relationshipTypes() == null ? Set.of() : spec.relationshipTypes();
+            this.direction = spec.direction() == null ? Direction.BOTH : spec.direction();
+            this.nodeBudget = budget(spec.maxNodes(), maxNodes);
+            this.relationshipBudget = budget(spec.maxRelationships(), maxRelationships);
+        }
+
+        void addSeed(SubgraphCollector.Element element) {
+            if (element.node() != null) {
+                addNode(element.node());
+            } else if (element.relationship() != null
+                    && nodes.containsKey(element.relationship().sourceId())
+                    && nodes.containsKey(element.relationship().targetId())) {
+                addRelationship(element.relationship());
+            }
+        }
+
+        List<String> seeds() {
+            return List.copyOf(nodes.keySet());
+        }
+
+        boolean exhausted() {
+            return nodes.size() >= nodeBudget || relationships.size() >= relationshipBudget;
+        }
+
+        int remainingRelationships() {
+            return Math.max(0, relationshipBudget - relationships.size());
+        }
+
+        /**
+         * Adds the rows of one hop within the budgets and returns the next frontier.
+         */
+        List<String> accept(List<Step> steps) {
+            if (steps.size() > remainingRelationships()) {
+                truncated = true;
+            }
+            Map<String, Integer> fanOut = new HashMap<>();
+            List<String> next = new ArrayList<>();
+            for (Step step : steps) {
+                if (fanOut.merge(step.fromId(), 1, Integer::sum) > maxDegree) {
+                    truncated = true;
+                    continue;
+                }
+                if (relationships.containsKey(step.relationship().id())) {
+                    continue;
+                }
+                String nodeId = step.node().id();
+                if (!nodes.containsKey(nodeId)) {
+                    if (!addNode(step.node())) {
+                        continue;
+                    }
+                    if (step.degree() > hubDegree) {
+                        truncated = true;
+                    } else {
+                        next.add(nodeId);
+                    }
+                }
+                if (!addRelationship(step.relationship())) {
+                    break;
+                }
+            }
+            return next;
+        }
+
+        private boolean addNode(NodeDTO node) {
+            if (nodes.containsKey(node.id())) {
+                return true;
+            }
+            if (nodes.size() >= nodeBudget) {
+                truncated = true;
+                return false;
+            }
+            nodes.put(node.id(), node);
+            return true;
+        }
+
+        private boolean addRelationship(RelationshipDTO relationship) {
+            if (relationships.size() >= relationshipBudget) {
+                truncated = true;
+                return false;
+            }
+            relationships.putIfAbsent(relationship.id(), relationship);
+            return true;
+        }
+
+        SubgraphDTO build() {
+            return new SubgraphDTO(List.copyOf(nodes.values()), List.copyOf(relationships.values()), truncated);
+        }
+
+        private static int budget(Integer requested, int limit) {
+            return requested == null || requested <= 0 ? limit : Math.min(requested, limit);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.khalid698.tutorials.codegraph.neo4j.CypherTemplates;
+import com.khalid698.tutorials.codegraph.neo4j.Neo4jClient;
+
+import dev.langchain4j.data.embedding.Embedding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caches question embeddings so repeated questions skip the embedding model round trip. Entries
+ * are keyed by the embedding model name and the normalized question (trimmed, whitespace collapsed,
+ * lower-cased), bounded to {@code app.query.embedding-cache.max-entries} in LRU order and expire
+ * after {@code ttl}. With {@code tier: neo4j} misses fall back to {@code :QueryEmbedding} nodes, so
+ * the cache survives restarts and is shared between instances; every write there also deletes
+ * up to {@value #PURGE_LIMIT} expired nodes.
+ */
+@Component
+public class QueryEmbeddingCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryEmbeddingCache.class);
+
+    private static final String LOOKUP_TEMPLATE = "cypher/queryEmbeddingLookup.cypher";
+    private static final String UPSERT_TEMPLATE = "cypher/queryEmbeddingUpsert.cypher";
+    private static final int PURGE_LIMIT = 100;
+
+    private final Neo4jClient neo4jClient;
+    private final CypherTemplates templates;
+    private final String modelName;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final boolean neo4jTier;
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter persistentHits;
+
+    public QueryEmbeddingCache(Neo4jClient neo4jClient,
+                               CypherTemplates templates,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.embedding-model}") String modelName,
+                               @Value("${app.query.embedding-cache.max-entries:10000}") int maxEntries,
+                               @Value("${app.query.embedding-cache.ttl:24h}") Duration ttl,
+                               @Value("${app.query.embedding-cache.tier:memory}") String tier) {
+        this.neo4jClient = neo4jClient;
+        this.templates = templates;
+        this.modelName = modelName;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttl = ttl;
+        this.neo4jTier = "neo4j".equalsIgnoreCase(tier);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > QueryEmbeddingCache.this.maxEntries;
+            }
+        };
+        this.hits = Counter.builder("query.embedding.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("query.embedding.cache").tag("result", "miss").register(meterRegistry);
+        this.persistentHits = Counter.builder("query.embedding.cache").tag("result", "persistent-hit").register(meterRegistry);
+        if (neo4jTier) {
+            templates.require(LOOKUP_TEMPLATE, UPSERT_TEMPLATE);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("query.embedding.cache.size", this, QueryEmbeddingCache::size).register(registry);
+    }
+
+    /**
+     * Returns the cached embedding of {@code question}, computing it with {@code embedder} on a miss.
+     */
+    public Embedding get(String question, Supplier<Embedding> embedder) {
+        String key = key(question);
+        long now = System.currentTimeMillis();
+        Entry cached = lookup(key, now);
+        if (cached != null) {
+            hits.increment();
+            return Embedding.from(cached.vector());
+        }
+        if (neo4jTier) {
+            float[] stored = loadPersistent(key, now);
+            if (stored != null) {
+                persistentHits.increment();
+                put(key, new Entry(stored, now));
+                return Embedding.from(stored);
+            }
+        }
+        misses.increment();
+        Embedding embedding = embedder.get();
+        put(key, new Entry(embedding.vector(), now));
+        if (neo4jTier) {
+            storePersistent(key, embedding.vector(), now);
+        }
+        return embedding;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry lookup(String key, long now) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && isExpired(entry.createdAt(), now)) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        if (maxEntries == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private float[] loadPersistent(String key, long now) {
+        try {
+            List<Map<String, Object>> rows = neo4jClient.executeRead(templates.load(LOOKUP_TEMPLATE), Map.of("key", key));
+            if (rows.isEmpty() || !(rows.get(0).get("createdAt") instanceof Number createdAt)
+                    || isExpired(createdAt.longValue(), now)) {
+                return null;
+            }
+            return rows.get(0).get("embedding") instanceof List<?> values ? VectorCodec.toFloats(values) : null;
+        } catch (RuntimeException e) {
+            log.info("Query embedding lookup in Neo4j failed, embedding the question instead: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void storePersistent(String key, float[] vector, long now) {
+        try {
+            neo4jClient.executeWrite(templates.load(UPSERT_TEMPLATE), Map.of(
+                    "key", key,
+                    "model", modelName,
+                    "embedding", vector,
+                    "createdAt", now,
+                    "expiredBefore", now - ttl.toMillis(),
+                    "purgeLimit", PURGE_LIMIT));
+        } catch (RuntimeException e) {
+            log.info("Unable to persist query embedding: {}", e.getMessage());
+        }
+    }
+
+    private boolean isExpired(long createdAt, long now) {
+        return now - createdAt > ttl.toMillis();
+    }
+
+    private String key(String question) {
+        String normalized = normalize(question);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest((modelName + "\n" + normalized).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    static String normalize(String question) {
+        return question.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(float[] vector, long createdAt) {
+    }
+}
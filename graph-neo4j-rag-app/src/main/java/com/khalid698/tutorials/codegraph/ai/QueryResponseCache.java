@@ -0,0 +1,111 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.khalid698.tutorials.codegraph.ai.dto.QueryResponseDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caches complete query responses, including the generated answer, keyed by normalized question,
+ * module, topK, hops and generateAnswer. Every entry remembers the module ingest version it was
+ * computed against and is discarded once an ingest has bumped that version, so new data is never
+ * answered from the cache. Bounded by {@code app.query.response-cache.max-entries} in LRU order.
+ */
+@Component
+public class QueryResponseCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Map<Key, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+
+    public QueryResponseCache(MeterRegistry meterRegistry,
+                              @Value("${app.query.response-cache.enabled:true}") boolean enabled,
+                              @Value("${app.query.response-cache.max-entries:1000}") int maxEntries,
+                              @Value("${app.query.response-cache.ttl:1h}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > QueryResponseCache.this.maxEntries;
+            }
+        };
+        this.hits = Counter.builder("query.response.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("query.response.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("query.response.cache.size", this, QueryResponseCache::size).register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled && maxEntries > 0;
+    }
+
+    public Key key(String question, String module, int topK, int hops, boolean generateAnswer) {
+        return new Key(QueryEmbeddingCache.normalize(question), module, topK, hops, generateAnswer);
+    }
+
+    /**
+     * Returns the cached response if it was computed against {@code version}, otherwise null.
+     */
+    public QueryResponseDTO get(Key key, String version) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && (!entry.version().equals(version) || now - entry.createdAt() > ttl.toMillis())) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.response();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Key key, String version, QueryResponseDTO response) {
+        lock.lock();
+        try {
+            entries.put(key, new Entry(version, response, System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Key(String question, String module, int topK, int hops, boolean generateAnswer) {
+    }
+
+    private record Entry(String version, QueryResponseDTO response, long createdAt) {
+    }
+}
@@ -1,14 +1,19 @@
 package com.khalid698.tutorials.codegraph.ai;
 
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
+import org.neo4j.driver.Record;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -16,125 +21,200 @@ import org.springframework.util.StringUtils;
 import com.khalid698.tutorials.codegraph.ai.dto.HitDTO;
 import com.khalid698.tutorials.codegraph.ai.dto.NodeDTO;
 import com.khalid698.tutorials.codegraph.ai.dto.QueryResponseDTO;
-import com.khalid698.tutorials.codegraph.ai.dto.RelationshipDTO;
 import com.khalid698.tutorials.codegraph.ai.dto.SubgraphDTO;
 import com.khalid698.tutorials.codegraph.neo4j.CypherTemplates;
+import com.khalid698.tutorials.codegraph.neo4j.GraphReader;
 import com.khalid698.tutorials.codegraph.neo4j.Neo4jClient;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection;
+import com.khalid698.tutorials.codegraph.projection.GraphProjections;
 
-import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
-import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
-import dev.langchain4j.store.embedding.EmbeddingMatch;
-import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
-import dev.langchain4j.store.embedding.EmbeddingStore;
 
 @Service
 public class QueryService {
 	private static final Logger log = LoggerFactory.getLogger(QueryService.class);
 
     private static final String EXPAND_TEMPLATE = "cypher/expandFromChunks.cypher";
+    private static final String SEARCH_TEMPLATE = "cypher/semanticSearchChunks.cypher";
+    private static final String MODULE_SEARCH_TEMPLATE = "cypher/semanticSearchModuleChunks.cypher";
+    private static final String LEXICAL_SEARCH_TEMPLATE = "cypher/lexicalSearchChunks.cypher";
+    private static final Set<String> CONTEXT_RELATIONSHIPS = Set.of("DEPENDS_ON", "EXPOSES_ENDPOINT", "IMPLEMENTS");
 
     private final EmbeddingModel embeddingModel;
     private final OpenAiChatModel chatModel;
-    private final EmbeddingStore<TextSegment> embeddingStore;
     private final Neo4jClient neo4jClient;
     private final CypherTemplates templates;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final QueryResponseCache responseCache;
+    private final GraphReader graphReader;
+    private final GraphTraversal graphTraversal;
+    private final GraphProjections graphProjections;
+    private final ExecutorService queryExecutor;
+    private final int overfetch;
+    private final int maxCandidates;
+    private final boolean hybrid;
+    private final int hybridCandidates;
+    private final int rrfK;
 
     public QueryService(EmbeddingModel embeddingModel,
     					OpenAiChatModel chatModel,
-                        EmbeddingStore<TextSegment> embeddingStore,
                         Neo4jClient neo4jClient,
-                        CypherTemplates templates) {
+                        CypherTemplates templates,
+                        QueryEmbeddingCache queryEmbeddingCache,
+                        QueryResponseCache responseCache,
+                        GraphReader graphReader,
+                        GraphTraversal graphTraversal,
+                        GraphProjections graphProjections,
+                        @Qualifier("queryExecutor") ExecutorService queryExecutor,
+                        @Value("${app.query.search.overfetch:10}") int overfetch,
+                        @Value("${app.query.search.max-candidates:1000}") int maxCandidates,
+                        @Value("${app.query.search.hybrid.enabled:false}") boolean hybrid,
+                        @Value("${app.query.search.hybrid.candidates:50}") int hybridCandidates,
+                        @Value("${app.query.search.hybrid.rrf-k:60}") int rrfK) {
         this.embeddingModel = embeddingModel;
         this.chatModel = chatModel;
-        this.embeddingStore = embeddingStore;
         this.neo4jClient = neo4jClient;
         this.templates = templates;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.responseCache = responseCache;
+        this.graphReader = graphReader;
+        this.graphTraversal = graphTraversal;
+        this.graphProjections = graphProjections;
+        this.queryExecutor = queryExecutor;
+        this.overfetch = Math.max(1, overfetch);
+        this.maxCandidates = Math.max(1, maxCandidates);
+        this.hybrid = hybrid;
+        this.hybridCandidates = Math.max(1, hybridCandidates);
+        this.rrfK = Math.max(1, rrfK);
+        templates.require(EXPAND_TEMPLATE, SEARCH_TEMPLATE, MODULE_SEARCH_TEMPLATE, LEXICAL_SEARCH_TEMPLATE);
     }
 
-    public QueryResponseDTO query(String question, String module, int topK, int hops, boolean generateAnswer) {
+    /**
+     * Answers a question without parking the calling thread. Embedding, vector search and answer
+     * synthesis block on HTTP clients and run on the query executor; the graph expansion runs on the
+     * async Neo4j driver and holds no thread while waiting. The stages depend on each other's
+     * results, so they run in sequence. Responses are served from {@link QueryResponseCache} while
+     * the ingest version of the queried module (or of all modules) is unchanged.
+     */
+    public CompletableFuture<QueryResponseDTO> queryAsync(String question, String module, int topK, int hops, boolean generateAnswer) {
         if (!StringUtils.hasText(question)) {
-            return QueryResponseDTO.withoutAnswer(List.of(), new SubgraphDTO(List.of(), List.of()));
+            return CompletableFuture.completedFuture(
+                    QueryResponseDTO.withoutAnswer(List.of(), new SubgraphDTO(List.of(), List.of())));
         }
 
-        Embedding queryEmbedding = embeddingModel.embed(question).content();
-        List<HitDTO> hits = semanticSearch(queryEmbedding, module, topK);
-        SubgraphDTO subgraph = expandGraph(hits, hops);
-
-        if (generateAnswer && chatModel != null) {
-            String answer = synthesizeAnswer(question, hits, subgraph);
-            return new QueryResponseDTO(answer, hits, subgraph);
+        if (!responseCache.isEnabled()) {
+            return answer(question, module, topK, hops, generateAnswer);
         }
+        String scope = StringUtils.hasText(module) ? module : null;
+        QueryResponseCache.Key key = responseCache.key(question, scope, topK, hops, generateAnswer);
+        return graphReader.ingestVersionAsync(scope).thenCompose(version -> {
+            QueryResponseDTO cached = responseCache.get(key, version);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return answer(question, module, topK, hops, generateAnswer).thenApply(response -> {
+                responseCache.put(key, version, response);
+                return response;
+            });
+        });
+    }
 
-        return QueryResponseDTO.withoutAnswer(hits, subgraph);
+    private CompletableFuture<QueryResponseDTO> answer(String question, String module, int topK, int hops, boolean generateAnswer) {
+        return searchAsync(question, module, topK)
+                .thenCompose(hits -> expandGraphAsync(hits, module, hops)
+                        .thenApply(subgraph -> QueryResponseDTO.withoutAnswer(hits, subgraph)))
+                .thenApplyAsync(response -> generateAnswer && chatModel != null
+                        ? new QueryResponseDTO(synthesizeAnswer(question, response.hits(), response.subgraph()),
+                                response.hits(), response.subgraph())
+                        : response, queryExecutor);
     }
 
-    private List<HitDTO> semanticSearch(Embedding embedding, String module, int topK) {
-        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
-                .queryEmbedding(embedding)
-                .maxResults(topK)
-                .build();
-
-        var searchResult = embeddingStore.search(request);
-        List<EmbeddingMatch<TextSegment>> matches = searchResult == null ? List.of() : searchResult.matches();
-        log.info("Semantic search returned {} raw matches", matches.size());
-        if (CollectionUtils.isEmpty(matches)) {
-            log.info("Semantic search returned no matches");
-            return List.of();
+    /**
+     * Vector search, or with {@code app.query.search.hybrid.enabled} a vector and a full-text search
+     * run concurrently and merged by reciprocal-rank fusion. The full-text search does not wait for
+     * the question embedding; if it fails, the vector hits are used alone.
+     */
+    private CompletableFuture<List<HitDTO>> searchAsync(String question, String module, int topK) {
+        int depth = hybrid ? Math.max(topK, hybridCandidates) : topK;
+        CompletableFuture<List<HitDTO>> lexical = hybrid ? lexicalSearchAsync(question, module, depth) : null;
+        CompletableFuture<List<HitDTO>> vector = CompletableFuture.supplyAsync(() -> embedQuestion(question), queryExecutor)
+                .thenCompose(embedding -> semanticSearchAsync(embedding, module, depth));
+        if (lexical == null) {
+            return vector;
         }
+        return vector.thenCombine(lexical, (vectorHits, lexicalHits) -> {
+            List<HitDTO> fused = RankFusion.fuse(List.of(vectorHits, lexicalHits), rrfK, topK);
+            log.info("Fused {} vector and {} full-text hits into {}", vectorHits.size(), lexicalHits.size(), fused.size());
+            return fused;
+        });
+    }
 
-        List<HitDTO> hits = new ArrayList<>();
-        for (EmbeddingMatch<TextSegment> match : matches) {
-            Object metadataObj = match.embedded() != null ? match.embedded().metadata() : null;
-            Map<String, Object> meta = extractMetadata(metadataObj);
-            if (meta == null) {
-                log.info("Skipping match with missing/invalid metadata");
-                continue;
-            }
-            if (StringUtils.hasText(module)) {
-                Object modVal = meta.get("module");
-                if (modVal == null || !module.equals(modVal.toString())) {
-                    log.info("Skipping match {} due to module mismatch (expected {}, found {})", meta.getOrDefault("id", ""), module, modVal);
-                    continue;
-                }
-            }
-            NodeDTO node = new NodeDTO(
-                    meta.getOrDefault("id", "").toString(),
-                    "Chunk",
-                    meta
-            );
-            hits.add(new HitDTO(match.score(), node));
+    private CompletableFuture<List<HitDTO>> lexicalSearchAsync(String question, String module, int limit) {
+        String query = RankFusion.fullTextQuery(question);
+        if (query.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
         }
-        log.info("Semantic search produced {} hits after filtering", hits.size());
-        return hits;
+        String scope = StringUtils.hasText(module) ? module : null;
+        Map<String, Object> params = new HashMap<>();
+        params.put("query", query);
+        params.put("module", scope);
+        params.put("topK", limit);
+        params.put("candidates", scope == null ? limit : Math.min(maxCandidates, Math.max(limit, limit * overfetch)));
+        return neo4jClient.queryAsync(templates.load(LEXICAL_SEARCH_TEMPLATE), params, this::toHit)
+                .exceptionally(e -> {
+                    log.info("Full-text search failed, using vector hits only: {}", e.getMessage());
+                    return List.of();
+                });
     }
 
-    private Map<String, Object> extractMetadata(Object metadataObj) {
-        if (metadataObj == null) {
-            return null;
-        }
-        if (metadataObj instanceof Map<?, ?> raw) {
-            Map<String, Object> meta = new HashMap<>();
-            raw.forEach((k, v) -> {
-                if (k != null) {
-                    meta.put(k.toString(), v);
-                }
-            });
-            return meta;
-        }
-        if (metadataObj instanceof Metadata m) {
-            Map<String, Object> meta = new HashMap<>();
-            m.toMap().forEach(meta::put);
-            return meta;
-        }
-        return null;
+    private Embedding embedQuestion(String question) {
+        return queryEmbeddingCache.get(question, () -> embeddingModel.embed(question).content());
     }
 
-    private SubgraphDTO expandGraph(List<HitDTO> hits, int hops) {
+    /**
+     * Searches {@code chunk_embedding_idx} directly. The index cannot filter by module, so a scoped
+     * search over-fetches {@code topK * app.query.search.overfetch} candidates and filters them in
+     * the query; if that still leaves fewer than {@code topK} hits (a small module among many), it
+     * falls back to an exact similarity scan over the module's chunks, which the Chunk.module index
+     * keeps proportional to the module size.
+     */
+    private CompletableFuture<List<HitDTO>> semanticSearchAsync(Embedding embedding, String module, int topK) {
+        String scope = StringUtils.hasText(module) ? module : null;
+        int candidates = scope == null ? topK : Math.min(maxCandidates, Math.max(topK, topK * overfetch));
+        Map<String, Object> params = new HashMap<>();
+        params.put("embedding", embedding.vectorAsList());
+        params.put("module", scope);
+        params.put("topK", topK);
+        params.put("candidates", candidates);
+        return neo4jClient.queryAsync(templates.load(SEARCH_TEMPLATE), params, this::toHit)
+                .thenCompose(hits -> {
+                    log.info("Vector search over {} candidates produced {} hits for module {}", candidates, hits.size(), scope);
+                    if (scope == null || hits.size() >= topK) {
+                        return CompletableFuture.completedFuture(hits);
+                    }
+                    return neo4jClient.queryAsync(templates.load(MODULE_SEARCH_TEMPLATE), params, this::toHit)
+                            .thenApply(exact -> {
+                                log.info("Exact search within module {} produced {} hits", scope, exact.size());
+                                return exact;
+                            });
+                });
+    }
+
+    private HitDTO toHit(Record record) {
+        Map<String, Object> properties = record.get("properties").asMap();
+        String id = Objects.toString(properties.get("id"), "");
+        return new HitDTO(record.get("score").asDouble(), new NodeDTO(id, "Chunk", properties));
+    }
+
+    /**
+     * Expands from the hit chunks, their methods and declaring types. With a current projection of
+     * the queried module the traversal runs in memory and only its result is read from Neo4j.
+     */
+    private CompletableFuture<SubgraphDTO> expandGraphAsync(List<HitDTO> hits, String module, int hops) {
         if (CollectionUtils.isEmpty(hits)) {
-            return new SubgraphDTO(List.of(), List.of());
+            return CompletableFuture.completedFuture(new SubgraphDTO(List.of(), List.of()));
         }
         List<String> chunkIds = hits.stream()
                 .map(HitDTO::node)
@@ -148,50 +228,31 @@ public class QueryService {
         log.info("Expanding graph for {} chunk ids", chunkIds.size());
         if (chunkIds.isEmpty()) {
             log.info("No chunk ids available to expand");
-            return new SubgraphDTO(List.of(), List.of());
-        }
-
-        String cypher = templates.load(EXPAND_TEMPLATE);
-        List<Map<String, Object>> rows = neo4jClient.executeRead(cypher, Map.of(
-                "chunkIds", chunkIds,
-                "hops", hops
-        ));
-
-        if (CollectionUtils.isEmpty(rows)) {
-            return new SubgraphDTO(List.of(), List.of());
+            return CompletableFuture.completedFuture(new SubgraphDTO(List.of(), List.of()));
         }
-        Map<String, Object> row = rows.get(0);
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> nodesRaw = (List<Map<String, Object>>) row.getOrDefault("nodes", List.of());
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> relsRaw = (List<Map<String, Object>>) row.getOrDefault("rels", List.of());
-
-        List<NodeDTO> nodes = nodesRaw.stream()
-                .map(this::toNodeDTO)
-                .toList();
-        List<RelationshipDTO> rels = relsRaw.stream()
-                .map(this::toRelationshipDTO)
-                .toList();
-
-        return new SubgraphDTO(nodes, rels);
-    }
 
-    private NodeDTO toNodeDTO(Map<String, Object> map) {
-        String id = Optional.ofNullable(map.get("id")).map(Object::toString).orElse(null);
-        String label = Optional.ofNullable(map.get("label")).map(Object::toString).orElse("Node");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> properties = (Map<String, Object>) map.getOrDefault("properties", Map.of());
-        return new NodeDTO(id, label, properties);
+        GraphTraversal.Spec spec = new GraphTraversal.Spec(hops, CONTEXT_RELATIONSHIPS, GraphTraversal.Direction.OUTGOING, null, null);
+        return graphProjections.getAsync(StringUtils.hasText(module) ? module : null)
+                .thenCompose(projection -> projection
+                        .map(current -> graphTraversal.expandProjectedAsync(current, projectedSeeds(current, hits), chunkIds, spec))
+                        .orElseGet(() -> graphTraversal.expandAsync(templates.load(EXPAND_TEMPLATE), Map.of("chunkIds", chunkIds), spec)));
     }
 
-    private RelationshipDTO toRelationshipDTO(Map<String, Object> map) {
-        String id = Optional.ofNullable(map.get("id")).map(Object::toString).orElse(null);
-        String type = Optional.ofNullable(map.get("type")).map(Object::toString).orElse("REL");
-        String sourceId = Optional.ofNullable(map.get("sourceId")).map(Object::toString).orElse(null);
-        String targetId = Optional.ofNullable(map.get("targetId")).map(Object::toString).orElse(null);
-        @SuppressWarnings("unchecked")
-        Map<String, Object> properties = (Map<String, Object>) map.getOrDefault("properties", Map.of());
-        return new RelationshipDTO(id, type, sourceId, targetId, properties);
+    // the owner type and method of each hit, as found by expandFromChunks.cypher
+    private static int[] projectedSeeds(GraphProjection projection, List<HitDTO> hits) {
+        Set<Integer> seeds = new LinkedHashSet<>();
+        for (HitDTO hit : hits) {
+            Map<String, Object> props = hit.node().properties();
+            if (!projection.module().equals(props.get("module")) || props.get("ownerFqcn") == null) {
+                continue;
+            }
+            seeds.add(projection.find("Type", props.get("ownerFqcn").toString()));
+            if (props.get("ownerSignature") != null) {
+                seeds.add(projection.find("Method", props.get("ownerFqcn") + "#" + props.get("ownerSignature")));
+            }
+        }
+        seeds.remove(-1);
+        return seeds.stream().mapToInt(Integer::intValue).toArray();
     }
 
     private String synthesizeAnswer(String question, List<HitDTO> hits, SubgraphDTO subgraph) {
@@ -0,0 +1,80 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.khalid698.tutorials.codegraph.ai.dto.HitDTO;
+
+/**
+ * Helpers of the hybrid search: turning a question into a full-text query and merging ranked
+ * hit lists with reciprocal-rank fusion.
+ */
+final class RankFusion {
+
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}_$]+(?:\\.[\\p{L}\\p{N}_$]+)*");
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MAX_TERMS = 32;
+
+    private RankFusion() {
+    }
+
+    /**
+     * Builds an OR query of the identifiers and words in {@code question}. Terms only contain
+     * letters, digits, {@code _}, {@code $} and dots, none of which need escaping in Lucene syntax.
+     * Dotted names are kept whole and also split into their parts, so
+     * {@code OrderRepository.findByStatus} matches the type, the method name and chunk text.
+     * Returns an empty string when nothing is searchable.
+     */
+    static String fullTextQuery(String question) {
+        Set<String> terms = new LinkedHashSet<>();
+        Matcher matcher = TERM.matcher(question == null ? "" : question);
+        while (matcher.find() && terms.size() < MAX_TERMS) {
+            String term = matcher.group();
+            addTerm(terms, term);
+            if (term.indexOf('.') >= 0) {
+                for (String part : term.split("\\.")) {
+                    addTerm(terms, part);
+                }
+            }
+        }
+        return String.join(" OR ", terms);
+    }
+
+    private static void addTerm(Set<String> terms, String term) {
+        if (term.length() >= MIN_TERM_LENGTH && terms.size() < MAX_TERMS) {
+            // lower case keeps words like AND or NOT from being read as operators
+            terms.add(term.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Reciprocal-rank fusion: every hit scores {@code sum(1 / (k + rank))} over the lists it
+     * appears in (rank starting at 1), so agreement between rankings counts more than the raw,
+     * incomparable scores of either search. Hits are identified by their chunk id.
+     */
+    static List<HitDTO> fuse(List<List<HitDTO>> rankings, int k, int topK) {
+        Map<String, HitDTO> hits = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (List<HitDTO> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                HitDTO hit = ranking.get(rank);
+                String id = Objects.toString(hit.node().properties().get("id"), hit.node().id());
+                hits.putIfAbsent(id, hit);
+                scores.merge(id, 1.0 / (k + rank + 1), Double::sum);
+            }
+        }
+        List<HitDTO> fused = new ArrayList<>(hits.size());
+        hits.forEach((id, hit) -> fused.add(new HitDTO(scores.get(id), hit.node())));
+        fused.sort(Comparator.comparingDouble(HitDTO::score).reversed());
+        return fused.size() > topK ? List.copyOf(fused.subList(0, topK)) : fused;
+    }
+}
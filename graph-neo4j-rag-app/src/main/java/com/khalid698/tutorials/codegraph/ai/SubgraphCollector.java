@@ -0,0 +1,73 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+
+import com.khalid698.tutorials.codegraph.ai.dto.NodeDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.RelationshipDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.SubgraphDTO;
+import com.khalid698.tutorials.codegraph.neo4j.Neo4jClient;
+
+/**
+ * Builds a {@link SubgraphDTO} from an expansion query that returns one row per element with the
+ * columns {@code kind} ({@code node} or {@code rel}), {@code id}, {@code label}, {@code type},
+ * {@code sourceId}, {@code targetId} and {@code properties}. Rows are streamed and mapped straight
+ * into DTOs, so the result never exists as one large map on the client.
+ */
+public final class SubgraphCollector {
+
+    private final List<NodeDTO> nodes = new ArrayList<>();
+    private final List<RelationshipDTO> relationships = new ArrayList<>();
+
+    public static SubgraphDTO collect(Neo4jClient neo4jClient, String cypher, Map<String, Object> params) {
+        SubgraphCollector collector = new SubgraphCollector();
+        neo4jClient.stream(cypher, params, SubgraphCollector::toElement, collector::add);
+        return collector.build();
+    }
+
+    /**
+     * Asynchronous variant of {@link #collect(Neo4jClient, String, Map)} on the async driver.
+     */
+    public static CompletableFuture<SubgraphDTO> collectAsync(Neo4jClient neo4jClient, String cypher, Map<String, Object> params) {
+        SubgraphCollector collector = new SubgraphCollector();
+        return neo4jClient.streamAsync(cypher, params, SubgraphCollector::toElement, collector::add)
+                .thenApply(count -> collector.build());
+    }
+
+    private void add(Element element) {
+        if (element.node() != null) {
+            nodes.add(element.node());
+        } else if (element.relationship() != null) {
+            relationships.add(element.relationship());
+        }
+    }
+
+    private SubgraphDTO build() {
+        return new SubgraphDTO(List.copyOf(nodes), List.copyOf(relationships));
+    }
+
+    static Element toElement(Record record) {
+        String id = text(record.get("id"), null);
+        Map<String, Object> properties = record.get("properties").isNull() ? Map.of() : record.get("properties").asMap();
+        if ("rel".equals(text(record.get("kind"), ""))) {
+            return new Element(null, new RelationshipDTO(id,
+                    text(record.get("type"), "REL"),
+                    text(record.get("sourceId"), null),
+                    text(record.get("targetId"), null),
+                    properties));
+        }
+        return new Element(new NodeDTO(id, text(record.get("label"), "Node"), properties), null);
+    }
+
+    static String text(Value value, String fallback) {
+        return value == null || value.isNull() ? fallback : value.asString();
+    }
+
+    record Element(NodeDTO node, RelationshipDTO relationship) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import java.util.List;
+
+/**
+ * Conversions between the vector shapes used by the driver, LangChain4j and the graph. Vectors are
+ * kept as primitive {@code float[]}; the driver hands stored vectors back as lists of boxed
+ * numbers, which are unpacked once here.
+ */
+final class VectorCodec {
+
+    private VectorCodec() {
+    }
+
+    static float[] toFloats(Object value) {
+        if (value instanceof float[] floats) {
+            return floats;
+        }
+        if (!(value instanceof List<?> values)) {
+            return null;
+        }
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = values.get(i) instanceof Number number ? number.floatValue() : 0f;
+        }
+        return vector;
+    }
+}
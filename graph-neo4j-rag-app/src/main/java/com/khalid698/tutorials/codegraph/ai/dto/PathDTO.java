@@ -0,0 +1,10 @@
+package com.khalid698.tutorials.codegraph.ai.dto;
+
+import java.util.List;
+
+public record PathDTO(
+        int length,
+        List<NodeDTO> nodes,
+        List<RelationshipDTO> relationships
+) {
+}
@@ -2,8 +2,15 @@ package com.khalid698.tutorials.codegraph.ai.dto;
 
 import java.util.List;
 
+/**
+ * {@code truncated} is set when a traversal budget or degree cap cut the expansion short.
+ */
 public record SubgraphDTO(
         List<NodeDTO> nodes,
-        List<RelationshipDTO> relationships
+        List<RelationshipDTO> relationships,
+        boolean truncated
 ) {
+    public SubgraphDTO(List<NodeDTO> nodes, List<RelationshipDTO> relationships) {
+        this(nodes, relationships, false);
+    }
 }
@@ -1,7 +1,22 @@
 package com.khalid698.tutorials.codegraph.api;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.neo4j.driver.Record;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -10,67 +25,224 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.khalid698.tutorials.codegraph.api.dto.GraphExpandRequest;
 import com.khalid698.tutorials.codegraph.api.dto.GraphPathRequest;
-import com.khalid698.tutorials.codegraph.ai.dto.SubgraphDTO;
+import com.khalid698.tutorials.codegraph.ai.GraphTraversal;
 import com.khalid698.tutorials.codegraph.ai.dto.NodeDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.PathDTO;
 import com.khalid698.tutorials.codegraph.ai.dto.RelationshipDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.SubgraphDTO;
 import com.khalid698.tutorials.codegraph.neo4j.CypherTemplates;
 import com.khalid698.tutorials.codegraph.neo4j.Neo4jClient;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection.RelationshipType;
+import com.khalid698.tutorials.codegraph.projection.GraphProjections;
 
 @RestController
 @RequestMapping("/api/v1/graph")
 public class GraphController {
 
+    private static final String EXPAND_TEMPLATE = "cypher/graphExpandFromIds.cypher";
+    private static final String PATH_TEMPLATE = "cypher/shortestPathTypes.cypher";
+    private static final String MODULE_PATH_TEMPLATE = "cypher/shortestPathTypesInModule.cypher";
+    private static final String PROJECTED_PATH_TEMPLATE = "cypher/projectionPath.cypher";
+    private static final List<String> DEFAULT_PATH_TYPES = List.of("DEPENDS_ON");
+
     private final Neo4jClient neo4jClient;
     private final CypherTemplates templates;
+    private final GraphTraversal graphTraversal;
+    private final GraphProjections projections;
+    private final int maxPaths;
+    private final int maxPathDepth;
+    private final int maxPathEndpoints;
+    private final Duration pathTimeout;
 
-    public GraphController(Neo4jClient neo4jClient, CypherTemplates templates) {
+    public GraphController(Neo4jClient neo4jClient,
+                           CypherTemplates templates,
+                           GraphTraversal graphTraversal,
+                           GraphProjections projections,
+                           @Value("${app.graph.path.max-paths:10}") int maxPaths,
+                           @Value("${app.graph.path.max-depth:10}") int maxPathDepth,
+                           @Value("${app.graph.path.max-endpoints:10}") int maxPathEndpoints,
+                           @Value("${app.graph.path.timeout:5s}") Duration pathTimeout) {
         this.neo4jClient = neo4jClient;
         this.templates = templates;
+        this.graphTraversal = graphTraversal;
+        this.projections = projections;
+        this.maxPaths = Math.max(1, maxPaths);
+        this.maxPathDepth = Math.max(1, maxPathDepth);
+        this.maxPathEndpoints = Math.max(1, maxPathEndpoints);
+        this.pathTimeout = pathTimeout;
+        templates.require(EXPAND_TEMPLATE, PATH_TEMPLATE, MODULE_PATH_TEMPLATE, PROJECTED_PATH_TEMPLATE);
     }
 
     @PostMapping("/expand")
-    public ResponseEntity<SubgraphDTO> expand(@RequestBody GraphExpandRequest request) {
-        if (request == null || request.nodeIds() == null || request.nodeIds().isEmpty()) {
-            return ResponseEntity.badRequest().build();
+    public CompletableFuture<ResponseEntity<SubgraphDTO>> expand(@RequestBody GraphExpandRequest request) {
+        if (request == null || !hasSeeds(request)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
-        int hops = request.hops() != null ? request.hops() : 2;
-        String cypher = templates.load("cypher/graphExpandFromIds.cypher");
-        var rows = neo4jClient.executeRead(cypher, java.util.Map.of("ids", request.nodeIds(), "hops", hops));
-        if (rows.isEmpty()) {
-            return ResponseEntity.ok(new SubgraphDTO(java.util.List.of(), java.util.List.of()));
+        GraphTraversal.Direction direction;
+        try {
+            direction = parseDirection(request.direction(), GraphTraversal.Direction.BOTH);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
-        var row = rows.get(0);
-        @SuppressWarnings("unchecked")
-        java.util.List<java.util.Map<String, Object>> nodesRaw = (java.util.List<java.util.Map<String, Object>>) row.getOrDefault("nodes", java.util.List.of());
-        @SuppressWarnings("unchecked")
-        java.util.List<java.util.Map<String, Object>> relsRaw = (java.util.List<java.util.Map<String, Object>>) row.getOrDefault("rels", java.util.List.of());
-        SubgraphDTO subgraph = new SubgraphDTO(
-                nodesRaw.stream().map(m -> new NodeDTO(
-                        m.get("id").toString(),
-                        m.getOrDefault("label", "Node").toString(),
-                        (java.util.Map<String, Object>) m.getOrDefault("properties", java.util.Map.of())
-                )).toList(),
-                relsRaw.stream().map(m -> new RelationshipDTO(
-                        m.get("id").toString(),
-                        m.getOrDefault("type", "REL").toString(),
-                        m.getOrDefault("sourceId", "").toString(),
-                        m.getOrDefault("targetId", "").toString(),
-                        (java.util.Map<String, Object>) m.getOrDefault("properties", java.util.Map.of())
-                )).toList()
-        );
-        return ResponseEntity.ok(subgraph);
+        GraphTraversal.Spec spec = new GraphTraversal.Spec(
+                request.hops() != null ? request.hops() : 2,
+                Set.copyOf(orEmpty(request.relationshipTypes()).stream().filter(Objects::nonNull).toList()),
+                direction,
+                request.maxNodes(),
+                request.maxRelationships());
+        Map<String, Object> params = Map.of(
+                "ids", orEmpty(request.nodeIds()),
+                "chunkIds", orEmpty(request.chunkIds()),
+                "types", typeKeys(request.types()),
+                "methods", methodKeys(request.methods()));
+        return graphTraversal.expandAsync(templates.load(EXPAND_TEMPLATE), params, spec)
+                .thenApply(ResponseEntity::ok);
     }
 
+    /**
+     * Shortest paths between types. A single path from a module with a current projection, over
+     * projected relationship types only, is searched in memory and just the found path is loaded
+     * from Neo4j; everything else runs {@code SHORTEST k} in Neo4j.
+     */
     @PostMapping("/path")
-    public ResponseEntity<Object> path(@RequestBody GraphPathRequest request) {
+    public CompletableFuture<ResponseEntity<List<PathDTO>>> path(@RequestBody GraphPathRequest request) {
         if (request == null || request.sourceFqcn() == null || request.targetFqcn() == null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        GraphTraversal.Direction direction;
+        try {
+            direction = parseDirection(request.direction(), GraphTraversal.Direction.OUTGOING);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        String pattern = switch (direction) {
+            case OUTGOING -> "-[r]->";
+            case INCOMING -> "<-[r]-";
+            case BOTH -> "-[r]-";
+        };
+        int k = Math.min(maxPaths, Math.max(1, request.k() != null ? request.k() : 1));
+        int depth = Math.min(maxPathDepth, Math.max(1, request.maxDepth() != null ? request.maxDepth() : 5));
+        String sourceModule = StringUtils.hasText(request.sourceModule()) ? request.sourceModule() : null;
+        String targetModule = StringUtils.hasText(request.targetModule()) ? request.targetModule() : null;
+        List<String> types = request.relationshipTypes() == null
+                ? DEFAULT_PATH_TYPES
+                : request.relationshipTypes().stream().filter(Objects::nonNull).toList();
+        Map<String, Object> params = new HashMap<>();
+        params.put("sourceFqcn", request.sourceFqcn());
+        params.put("targetFqcn", request.targetFqcn());
+        params.put("sourceModule", sourceModule);
+        params.put("targetModule", targetModule);
+        params.put("types", types);
+        params.put("maxEndpoints", maxPathEndpoints);
+        params.put("limit", k);
+        // a scoped source gets its own template so the planner can seek the (module, fqcn) constraint;
+        // SHORTEST k and the quantifier bounds cannot be parameters, so the clamped values are part of the query text
+        String cypher = templates.load(sourceModule != null ? MODULE_PATH_TEMPLATE : PATH_TEMPLATE).formatted(k, pattern, depth);
+        Supplier<CompletableFuture<List<PathDTO>>> query =
+                () -> neo4jClient.queryAsync(cypher, params, pathTimeout, GraphController::toPath);
+
+        Set<RelationshipType> projected = projectedTypes(types);
+        CompletableFuture<List<PathDTO>> paths = k == 1 && sourceModule != null && projected != null
+                ? projections.getAsync(sourceModule).thenCompose(projection -> projection
+                        .map(current -> projectedPath(current, request.sourceFqcn(), request.targetFqcn(), sourceModule,
+                                targetModule, projected, direction, depth, query))
+                        .orElseGet(query))
+                : query.get();
+        return paths.thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Searches the path in the projection of the source module. The projection holds the module's
+     * nodes and the targets of their relationships, so a target it does not know goes to Neo4j;
+     * paths that leave the module and come back into it are not seen.
+     */
+    private CompletableFuture<List<PathDTO>> projectedPath(GraphProjection projection, String sourceFqcn, String targetFqcn,
+                                                           String sourceModule, String targetModule,
+                                                           Set<RelationshipType> types, GraphTraversal.Direction direction,
+                                                           int depth, Supplier<CompletableFuture<List<PathDTO>>> query) {
+        int target = projection.find("Type", targetFqcn);
+        if (target < 0 || (targetModule != null && !targetModule.equals(projection.node(target).module()))) {
+            return query.get();
+        }
+        int source = projection.find("Type", sourceFqcn);
+        if (source < 0 || source == target || !sourceModule.equals(projection.node(source).module())) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        int[] path = projection.shortestPath(source, target, GraphProjection.mask(types), direction, depth);
+        if (path.length == 0) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("nodeIds", Arrays.stream(path).mapToObj(projection::elementId).toList());
+        params.put("types", types.stream().map(Enum::name).toList());
+        params.put("direction", direction.name());
+        return neo4jClient.queryAsync(templates.load(PROJECTED_PATH_TEMPLATE), params, pathTimeout, GraphController::toPath);
+    }
+
+    /**
+     * The requested relationship types as projected types, or null when any of them, or all types
+     * (an empty list), are not part of the projection.
+     */
+    private static Set<RelationshipType> projectedTypes(List<String> types) {
+        if (types.isEmpty()) {
+            return null;
         }
-        String cypher = templates.load("cypher/shortestPathTypesSimple.cypher");
-        var rows = neo4jClient.executeRead(cypher, java.util.Map.of(
-                "sourceFqcn", request.sourceFqcn(),
-                "targetFqcn", request.targetFqcn()));
-        return ResponseEntity.ok(rows);
+        Set<RelationshipType> projected = EnumSet.noneOf(RelationshipType.class);
+        for (String type : types) {
+            RelationshipType match = Arrays.stream(RelationshipType.values())
+                    .filter(candidate -> candidate.name().equals(type))
+                    .findFirst()
+                    .orElse(null);
+            if (match == null) {
+                return null;
+            }
+            projected.add(match);
+        }
+        return projected;
+    }
+
+    private static PathDTO toPath(Record record) {
+        List<NodeDTO> nodes = record.get("nodes").asList(value -> new NodeDTO(
+                value.get("id").asString(),
+                value.get("label").asString("Node"),
+                value.get("properties").asMap()));
+        List<RelationshipDTO> relationships = record.get("relationships").asList(value -> new RelationshipDTO(
+                value.get("id").asString(),
+                value.get("type").asString(),
+                value.get("sourceId").asString(),
+                value.get("targetId").asString(),
+                value.get("properties").asMap()));
+        return new PathDTO(record.get("length").asInt(), nodes, relationships);
+    }
+
+    private static GraphTraversal.Direction parseDirection(String direction, GraphTraversal.Direction fallback) {
+        return direction == null ? fallback : GraphTraversal.Direction.valueOf(direction.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static boolean hasSeeds(GraphExpandRequest request) {
+        return !orEmpty(request.nodeIds()).isEmpty()
+                || !orEmpty(request.chunkIds()).isEmpty()
+                || !orEmpty(request.types()).isEmpty()
+                || !orEmpty(request.methods()).isEmpty();
+    }
+
+    private static List<Map<String, String>> typeKeys(List<GraphExpandRequest.TypeKey> keys) {
+        return orEmpty(keys).stream()
+                .filter(key -> key != null && key.module() != null && key.fqcn() != null)
+                .map(key -> Map.of("module", key.module(), "fqcn", key.fqcn()))
+                .toList();
+    }
+
+    private static List<Map<String, String>> methodKeys(List<GraphExpandRequest.MethodKey> keys) {
+        return orEmpty(keys).stream()
+                .filter(key -> key != null && key.module() != null && key.fqcn() != null && key.signature() != null)
+                .map(key -> Map.of("module", key.module(), "fqcn", key.fqcn(), "signature", key.signature()))
+                .toList();
+    }
+
+    private static <T> List<T> orEmpty(List<T> values) {
+        return values == null ? List.of() : values;
     }
 
     @ExceptionHandler(Exception.class)
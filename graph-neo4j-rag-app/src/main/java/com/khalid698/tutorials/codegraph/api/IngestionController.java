@@ -1,16 +1,27 @@
 package com.khalid698.tutorials.codegraph.api;
 
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.khalid698.tutorials.codegraph.api.dto.IngestJobResponse;
 import com.khalid698.tutorials.codegraph.api.dto.IngestRequest;
 import com.khalid698.tutorials.codegraph.api.dto.IngestResponse;
+import com.khalid698.tutorials.codegraph.ingest.IngestOptions;
+import com.khalid698.tutorials.codegraph.ingest.IngestionJob;
+import com.khalid698.tutorials.codegraph.ingest.IngestionJobService;
+import com.khalid698.tutorials.codegraph.ingest.IngestionProgress;
 import com.khalid698.tutorials.codegraph.ingest.IngestionService;
 
 @RestController
@@ -19,9 +30,11 @@ import com.khalid698.tutorials.codegraph.ingest.IngestionService;
 public class IngestionController {
 
     private final IngestionService ingestionService;
+    private final IngestionJobService ingestionJobService;
 
-    public IngestionController(IngestionService ingestionService) {
+    public IngestionController(IngestionService ingestionService, IngestionJobService ingestionJobService) {
         this.ingestionService = ingestionService;
+        this.ingestionJobService = ingestionJobService;
     }
 
     @PostMapping("/ingest")
@@ -29,18 +42,7 @@ public class IngestionController {
         if (request == null || request.moduleName() == null || request.repoPath() == null) {
             return ResponseEntity.badRequest().build();
         }
-        boolean includeTests = request.options() != null && Boolean.TRUE.equals(request.options().includeTests());
-        Integer chunkChars = request.options() != null ? request.options().chunkChars() : null;
-        Integer overlap = request.options() != null ? request.options().overlap() : null;
-        boolean embed = request.options() == null || request.options().embed() == null || request.options().embed();
-
-        IngestionService.Summary summary = ingestionService.ingest(
-                request.repoPath(),
-                request.moduleName(),
-                includeTests,
-                chunkChars,
-                overlap,
-                embed);
+        IngestionService.Summary summary = ingestionService.ingest(request.repoPath(), request.moduleName(), options(request));
 
         IngestResponse response = new IngestResponse(
                 summary.moduleName(),
@@ -50,6 +52,60 @@ public class IngestionController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/ingest/jobs")
+    public ResponseEntity<IngestJobResponse> submit(@RequestBody IngestRequest request) {
+        if (request == null || request.moduleName() == null || request.repoPath() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        IngestionJob job;
+        try {
+            job = ingestionJobService.submit(request.repoPath(), request.moduleName(), options(request));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/ingest/jobs/" + job.id()))
+                .body(toJobResponse(job));
+    }
+
+    @GetMapping("/ingest/jobs/{jobId}")
+    public ResponseEntity<IngestJobResponse> job(@PathVariable String jobId) {
+        return ingestionJobService.find(jobId)
+                .map(job -> ResponseEntity.ok(toJobResponse(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/ingest/jobs/{jobId}")
+    public ResponseEntity<IngestJobResponse> cancel(@PathVariable String jobId) {
+        return ingestionJobService.cancel(jobId)
+                .map(job -> ResponseEntity.accepted().body(toJobResponse(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static IngestOptions options(IngestRequest request) {
+        IngestRequest.Options options = request.options();
+        return options == null
+                ? IngestOptions.defaults()
+                : IngestOptions.of(options.includeTests(), options.chunkChars(), options.overlap(), options.embed(),
+                        options.incremental(), options.streaming());
+    }
+
+    private IngestJobResponse toJobResponse(IngestionJob job) {
+        IngestionProgress progress = job.progress();
+        IngestionService.Summary summary = progress.summary();
+        return new IngestJobResponse(
+                job.id(),
+                job.moduleName(),
+                job.status().name(),
+                progress.stage().name(),
+                new IngestResponse.Counts(summary.types(), summary.methods(), summary.endpoints(), summary.chunks(), summary.relationships()),
+                progress.chunksEmbedded(),
+                progress.chunksPerSecond(),
+                summary.durationMs(),
+                job.error()
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handle(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
@@ -0,0 +1,97 @@
+package com.khalid698.tutorials.codegraph.api;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.khalid698.tutorials.codegraph.ai.GraphTraversal.Direction;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection.RelationshipType;
+import com.khalid698.tutorials.codegraph.projection.GraphProjections;
+import com.khalid698.tutorials.codegraph.projection.ProjectedNode;
+
+/**
+ * Dependency queries answered from the in-memory projection of a module. Responds with 404 when
+ * projections are disabled, the module is not projected at its current ingest version (yet) or a
+ * node key is unknown.
+ */
+@RestController
+@RequestMapping("/api/v1/graph/projection/{module}")
+public class ProjectionController {
+
+    private static final Set<RelationshipType> DEPENDENCIES = EnumSet.of(RelationshipType.DEPENDS_ON);
+
+    private final GraphProjections projections;
+
+    public ProjectionController(GraphProjections projections) {
+        this.projections = projections;
+    }
+
+    @GetMapping("/path")
+    public CompletableFuture<ResponseEntity<List<ProjectedNode>>> path(@PathVariable String module,
+                                                                       @RequestParam String sourceFqcn,
+                                                                       @RequestParam String targetFqcn,
+                                                                       @RequestParam(defaultValue = "5") int maxDepth) {
+        return projections.getAsync(module).thenApply(current -> {
+            GraphProjection projection = current.orElse(null);
+            if (projection == null) {
+                return ResponseEntity.notFound().build();
+            }
+            int source = projection.find("Type", sourceFqcn);
+            int target = projection.find("Type", targetFqcn);
+            if (source < 0 || target < 0) {
+                return ResponseEntity.notFound().build();
+            }
+            int[] path = projection.shortestPath(source, target, GraphProjection.mask(DEPENDENCIES), Direction.OUTGOING, maxDepth);
+            return ResponseEntity.ok(projection.nodes(path));
+        });
+    }
+
+    @GetMapping("/dependencies")
+    public CompletableFuture<ResponseEntity<List<ProjectedNode>>> dependencies(@PathVariable String module,
+                                                                               @RequestParam String fqcn,
+                                                                               @RequestParam(defaultValue = "1") int hops) {
+        return reachable(module, "Type", fqcn, hops, Direction.OUTGOING, DEPENDENCIES);
+    }
+
+    @GetMapping("/dependents")
+    public CompletableFuture<ResponseEntity<List<ProjectedNode>>> dependents(@PathVariable String module,
+                                                                             @RequestParam String fqcn,
+                                                                             @RequestParam(defaultValue = "1") int hops) {
+        return reachable(module, "Type", fqcn, hops, Direction.INCOMING, DEPENDENCIES);
+    }
+
+    /**
+     * k-hop neighbourhood of any projected node; {@code key} is a fqcn, {@code fqcn#signature} or
+     * {@code METHOD path} depending on {@code label}. No {@code types} follows all of them.
+     */
+    @GetMapping("/neighbourhood")
+    public CompletableFuture<ResponseEntity<List<ProjectedNode>>> neighbourhood(@PathVariable String module,
+                                                                                @RequestParam(defaultValue = "Type") String label,
+                                                                                @RequestParam String key,
+                                                                                @RequestParam(defaultValue = "1") int hops,
+                                                                                @RequestParam(defaultValue = "BOTH") Direction direction,
+                                                                                @RequestParam(required = false) Set<RelationshipType> types) {
+        return reachable(module, label, key, hops, direction, types);
+    }
+
+    private CompletableFuture<ResponseEntity<List<ProjectedNode>>> reachable(String module, String label, String key, int hops,
+                                                                             Direction direction, Set<RelationshipType> types) {
+        return projections.getAsync(module).thenApply(current -> {
+            GraphProjection projection = current.orElse(null);
+            int node = projection == null ? -1 : projection.find(label, key);
+            if (node < 0) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(projection.nodes(projection.neighbourhood(node, Math.max(0, hops), GraphProjection.mask(types), direction)));
+        });
+    }
+}
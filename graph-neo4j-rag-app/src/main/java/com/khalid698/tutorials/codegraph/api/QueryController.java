@@ -1,5 +1,8 @@
 package com.khalid698.tutorials.codegraph.api;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -25,15 +28,20 @@ public class QueryController {
     }
 
     @PostMapping("/query")
-    public ResponseEntity<QueryResponseDTO> query(@RequestBody QueryRequest request) {
+    public CompletableFuture<ResponseEntity<QueryResponseDTO>> query(@RequestBody QueryRequest request) {
         if (request == null || request.question() == null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
         int topK = request.topK() != null ? request.topK() : 10;
         int hops = request.hops() != null ? request.hops() : 2;
         boolean generate = request.generateAnswer() == null || request.generateAnswer();
-        QueryResponseDTO response = queryService.query(request.question(), request.moduleName(), topK, hops, generate);
-        return ResponseEntity.ok(response);
+        return queryService.queryAsync(request.question(), request.moduleName(), topK, hops, generate)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejected(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Query capacity exhausted, retry later");
     }
 
     @ExceptionHandler(Exception.class)
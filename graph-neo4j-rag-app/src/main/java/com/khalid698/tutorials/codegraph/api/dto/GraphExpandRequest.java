@@ -2,8 +2,32 @@ package com.khalid698.tutorials.codegraph.api.dto;
 
 import java.util.List;
 
+/**
+ * Seeds of a graph expansion: {@code nodeIds} are Neo4j element ids as returned in
+ * {@code NodeDTO.id}; the other lists address nodes by their unique domain keys. An empty
+ * {@code relationshipTypes} follows all types; {@code direction} is OUTGOING, INCOMING or BOTH.
+ */
 public record GraphExpandRequest(
         List<String> nodeIds,
-        Integer hops
+        List<String> chunkIds,
+        List<TypeKey> types,
+        List<MethodKey> methods,
+        Integer hops,
+        List<String> relationshipTypes,
+        String direction,
+        Integer maxNodes,
+        Integer maxRelationships
 ) {
+    public record TypeKey(
+            String module,
+            String fqcn
+    ) {
+    }
+
+    public record MethodKey(
+            String module,
+            String fqcn,
+            String signature
+    ) {
+    }
 }
@@ -1,7 +1,20 @@
 package com.khalid698.tutorials.codegraph.api.dto;
 
+import java.util.List;
+
+/**
+ * Path query between two types. Modules are optional but keep duplicated FQCNs from matching in
+ * every module; {@code k} paths are returned, shortest first. {@code direction} is OUTGOING
+ * (source depends on target), INCOMING or BOTH; {@code relationshipTypes} defaults to DEPENDS_ON.
+ */
 public record GraphPathRequest(
         String sourceFqcn,
-        String targetFqcn
+        String targetFqcn,
+        String sourceModule,
+        String targetModule,
+        Integer k,
+        Integer maxDepth,
+        String direction,
+        List<String> relationshipTypes
 ) {
 }
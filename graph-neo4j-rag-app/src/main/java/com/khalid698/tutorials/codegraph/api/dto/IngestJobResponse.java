@@ -0,0 +1,14 @@
+package com.khalid698.tutorials.codegraph.api.dto;
+
+public record IngestJobResponse(
+        String jobId,
+        String moduleName,
+        String status,
+        String stage,
+        IngestResponse.Counts counts,
+        int chunksEmbedded,
+        double chunksPerSecond,
+        long elapsedMs,
+        String error
+) {
+}
@@ -9,7 +9,9 @@ public record IngestRequest(
             Boolean includeTests,
             Integer chunkChars,
             Integer overlap,
-            Boolean embed
+            Boolean embed,
+            Boolean incremental,
+            Boolean streaming
     ) {
     }
 }
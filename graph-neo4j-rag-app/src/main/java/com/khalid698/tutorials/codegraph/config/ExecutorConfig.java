@@ -0,0 +1,82 @@
+package com.khalid698.tutorials.codegraph.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Executors of the ingest and query paths. With {@code spring.threads.virtual.enabled} the same
+ * flag that moves Tomcat request handling to virtual threads also backs these executors with
+ * virtual threads; pool sizes and queue bounds still apply, so they keep limiting concurrent
+ * OpenAI and Neo4j calls rather than the number of carrier threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private final boolean virtualThreads;
+
+    public ExecutorConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService embeddingExecutor(@Value("${app.embedding.parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(Math.max(1, parallelism), threadFactory("embedding-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ingestionExecutor(@Value("${app.ingest.jobs.concurrency:2}") int concurrency,
+                                             @Value("${app.ingest.jobs.queue-capacity:16}") int queueCapacity) {
+        int threads = Math.max(1, concurrency);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory("ingestion-"));
+    }
+
+    /**
+     * Runs the graph writer and chunk workers of each ingest; its size follows from
+     * {@code app.ingest.jobs.concurrency} times {@code app.ingest.pipeline.workers + 1}.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ingestPipelineExecutor() {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(threadFactory("ingest-pipeline-"));
+        }
+        return Executors.newCachedThreadPool(threadFactory("ingest-pipeline-"));
+    }
+
+    /**
+     * Shared by all {@code GraphWriter} calls; bounds the number of concurrent node upsert
+     * transactions across ingests to {@code app.graph.write.parallelism}.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService graphWriteExecutor(@Value("${app.graph.write.parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(Math.max(1, parallelism), threadFactory("graph-write-"));
+    }
+
+    /**
+     * Runs the blocking model calls of asynchronous queries (question embedding and answer
+     * synthesis) so servlet threads are released while they wait.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService queryExecutor(@Value("${app.query.executor.threads:32}") int threads,
+                                         @Value("${app.query.executor.queue-capacity:512}") int queueCapacity) {
+        int size = Math.max(1, threads);
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory("query-"));
+    }
+
+    private ThreadFactory threadFactory(String prefix) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return new CustomizableThreadFactory(prefix);
+    }
+}
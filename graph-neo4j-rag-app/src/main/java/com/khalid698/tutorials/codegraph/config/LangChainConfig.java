@@ -2,6 +2,7 @@ package com.khalid698.tutorials.codegraph.config;
 
 import org.neo4j.driver.Driver;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -31,7 +32,13 @@ public class LangChainConfig {
                 .build();
     }
 
+    /**
+     * Legacy mirror of the chunk vectors on separate {@code :ChunkEmbeddingStore} nodes. Search reads
+     * {@code c.embedding} on {@code :Chunk} through {@code chunk_embedding_idx}, so the mirror is only
+     * created with {@code app.embedding.store-mirror=true}.
+     */
     @Bean
+    @ConditionalOnProperty(name = "app.embedding.store-mirror", havingValue = "true")
     public Neo4jEmbeddingStore chunkEmbeddingStore(Driver driver,
                                                    EmbeddingModel embeddingModel,
                                                    @Value("${app.vector-dimensions:1536}") int vectorDimensions) {
@@ -11,6 +11,7 @@ public record MethodDef(
         boolean isAbstract,
         String path,
         Integer startLine,
-        Integer endLine
+        Integer endLine,
+        String sourceText
 ) {
 }
@@ -0,0 +1,14 @@
+package com.khalid698.tutorials.codegraph.domain;
+
+import java.util.List;
+
+/**
+ * One batch of a streaming parse: the repository-relative source files that were parsed together
+ * and the records extracted from them.
+ */
+public record ParsedBatch(
+        int index,
+        List<String> paths,
+        ParsedModule parsed
+) {
+}
@@ -0,0 +1,116 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.khalid698.tutorials.codegraph.domain.ChunkDoc;
+
+/**
+ * Bounded hand-off between the thread producing chunks and a fixed number of workers that embed
+ * and persist them. {@link #submit(List)} blocks while the queue is full, so chunking never runs
+ * more than {@code capacity} batches ahead of embedding; a worker failure is rethrown to the
+ * producer on its next call.
+ */
+final class ChunkPipeline {
+
+    private static final List<ChunkDoc> END = new ArrayList<>();
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final BlockingQueue<List<ChunkDoc>> queue;
+    private final List<CompletableFuture<Void>> workers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean aborted;
+
+    ChunkPipeline(int workerCount, int capacity, Consumer<List<ChunkDoc>> sink, Executor executor) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            workers.add(CompletableFuture.runAsync(() -> drain(sink), executor));
+        }
+    }
+
+    void submit(List<ChunkDoc> batch) {
+        if (!batch.isEmpty()) {
+            enqueue(batch);
+        }
+    }
+
+    /**
+     * Signals the end of input and waits until every queued batch has been processed.
+     */
+    void finish() {
+        workers.forEach(worker -> enqueue(END));
+        try {
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Chunk pipeline interrupted");
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Stops the workers after their current batch and discards whatever is still queued.
+     */
+    void abort() {
+        aborted = true;
+        queue.clear();
+    }
+
+    private void drain(Consumer<List<ChunkDoc>> sink) {
+        try {
+            while (!aborted) {
+                List<ChunkDoc> batch = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                if (batch == END || aborted) {
+                    return;
+                }
+                sink.accept(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            abort();
+        }
+    }
+
+    private void enqueue(List<ChunkDoc> batch) {
+        try {
+            while (!queue.offer(batch, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                rethrowFailure();
+                if (aborted) {
+                    throw new CancellationException("Chunk pipeline aborted");
+                }
+            }
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Chunk pipeline interrupted");
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw propagate(cause);
+        }
+    }
+
+    private RuntimeException propagate(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+}
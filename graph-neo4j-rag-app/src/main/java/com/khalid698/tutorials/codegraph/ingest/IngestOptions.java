@@ -0,0 +1,33 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+/**
+ * Options of one ingest. {@code chunkChars} and {@code overlap} may be null for the configured
+ * chunking defaults.
+ */
+public record IngestOptions(
+        boolean includeTests,
+        Integer chunkChars,
+        Integer overlap,
+        boolean embed,
+        boolean incremental,
+        boolean streaming
+) {
+
+    public static IngestOptions defaults() {
+        return of(null, null, null, null, null, null);
+    }
+
+    /**
+     * Resolves request values, where null means the default: embedding on, everything else off.
+     */
+    public static IngestOptions of(Boolean includeTests, Integer chunkChars, Integer overlap, Boolean embed,
+                                   Boolean incremental, Boolean streaming) {
+        return new IngestOptions(
+                Boolean.TRUE.equals(includeTests),
+                chunkChars,
+                overlap,
+                embed == null || embed,
+                Boolean.TRUE.equals(incremental),
+                Boolean.TRUE.equals(streaming));
+    }
+}
@@ -0,0 +1,69 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+import java.util.concurrent.Future;
+
+public class IngestionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final String moduleName;
+    private final IngestionProgress progress;
+    private final long submittedAt = System.currentTimeMillis();
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    IngestionJob(String id, String moduleName) {
+        this.id = id;
+        this.moduleName = moduleName;
+        this.progress = new IngestionProgress(moduleName);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String moduleName() {
+        return moduleName;
+    }
+
+    public IngestionProgress progress() {
+        return progress;
+    }
+
+    public long submittedAt() {
+        return submittedAt;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    void status(Status status) {
+        this.status = status;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.status = Status.FAILED;
+    }
+
+    void future(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> future() {
+        return future;
+    }
+}
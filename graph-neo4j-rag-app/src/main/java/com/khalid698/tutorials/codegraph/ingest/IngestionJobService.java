@@ -0,0 +1,119 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs ingests as background jobs on the bounded {@code ingestionExecutor}. Submissions beyond the
+ * executor's queue capacity are rejected with {@link RejectedExecutionException}; finished jobs are
+ * kept for polling until more than {@code app.ingest.jobs.retained} have accumulated.
+ */
+@Service
+public class IngestionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private final IngestionService ingestionService;
+    private final ExecutorService ingestionExecutor;
+    private final int retainedJobs;
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public IngestionJobService(IngestionService ingestionService,
+                               @Qualifier("ingestionExecutor") ExecutorService ingestionExecutor,
+                               @Value("${app.ingest.jobs.retained:100}") int retainedJobs) {
+        this.ingestionService = ingestionService;
+        this.ingestionExecutor = ingestionExecutor;
+        this.retainedJobs = retainedJobs;
+    }
+
+    public IngestionJob submit(String repoPath, String moduleName, IngestOptions options) {
+        evictFinishedJobs();
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString(), moduleName);
+        jobs.put(job.id(), job);
+        try {
+            Future<?> future = ingestionExecutor.submit(() -> run(job, repoPath, options));
+            job.future(future);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw e;
+        }
+        log.info("Queued ingestion job {} for module {}", job.id(), moduleName);
+        return job;
+    }
+
+    public Optional<IngestionJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public Optional<IngestionJob> cancel(String jobId) {
+        IngestionJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.isFinished()) {
+            job.progress().cancel();
+            Future<?> future = job.future();
+            if (future != null) {
+                future.cancel(true);
+            }
+            if (job.status() == IngestionJob.Status.QUEUED) {
+                job.status(IngestionJob.Status.CANCELLED);
+            }
+            log.info("Cancellation requested for ingestion job {} (module {})", job.id(), job.moduleName());
+        }
+        return Optional.of(job);
+    }
+
+    private void run(IngestionJob job, String repoPath, IngestOptions options) {
+        if (job.progress().isCancelled()) {
+            job.status(IngestionJob.Status.CANCELLED);
+            return;
+        }
+        job.status(IngestionJob.Status.RUNNING);
+        try {
+            ingestionService.ingest(repoPath, job.moduleName(), options, job.progress());
+            job.status(IngestionJob.Status.SUCCEEDED);
+            log.info("Ingestion job {} for module {} finished in {} ms", job.id(), job.moduleName(), job.progress().elapsedMs());
+        } catch (Throwable e) {
+            // an interrupt may surface from the driver or HTTP client as some other exception
+            if (e instanceof CancellationException || (e instanceof Exception && job.progress().isCancelled())) {
+                job.status(IngestionJob.Status.CANCELLED);
+                log.info("Ingestion job {} for module {} cancelled", job.id(), job.moduleName());
+                return;
+            }
+            // errors such as OutOfMemoryError from parsing a large repository must not leave the job RUNNING
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+            log.info("Ingestion job {} for module {} failed: {}", job.id(), job.moduleName(), e.toString());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - retainedJobs;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(IngestionJob::isFinished)
+                .sorted(Comparator.comparingLong(IngestionJob::submittedAt))
+                .limit(excess)
+                .map(IngestionJob::id)
+                .toList()
+                .forEach(jobs::remove);
+    }
+}
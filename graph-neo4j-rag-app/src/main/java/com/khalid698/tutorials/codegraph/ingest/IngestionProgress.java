@@ -0,0 +1,113 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live counters of a running ingest. {@link IngestionService} updates them as stages complete,
+ * so a job can be polled while the ingest is still running and can be cancelled between stages.
+ */
+public class IngestionProgress {
+
+    public enum Stage {
+        QUEUED, SCANNING, PARSING, WRITING_NODES, CHUNKING, EMBEDDING, DONE
+    }
+
+    private final String moduleName;
+    private final AtomicInteger types = new AtomicInteger();
+    private final AtomicInteger methods = new AtomicInteger();
+    private final AtomicInteger endpoints = new AtomicInteger();
+    private final AtomicInteger chunks = new AtomicInteger();
+    private final AtomicInteger chunksEmbedded = new AtomicInteger();
+    private final AtomicInteger relationships = new AtomicInteger();
+    private volatile Stage stage = Stage.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile boolean cancelled;
+
+    public IngestionProgress(String moduleName) {
+        this.moduleName = moduleName;
+    }
+
+    void start() {
+        startedAt = System.currentTimeMillis();
+    }
+
+    void finish() {
+        finishedAt = System.currentTimeMillis();
+        stage = Stage.DONE;
+    }
+
+    void stage(Stage next) {
+        checkCancelled();
+        stage = next;
+    }
+
+    void addTypes(int count) {
+        types.addAndGet(count);
+    }
+
+    void addMethods(int count) {
+        methods.addAndGet(count);
+    }
+
+    void addEndpoints(int count) {
+        endpoints.addAndGet(count);
+    }
+
+    void addChunks(int count) {
+        chunks.addAndGet(count);
+    }
+
+    void addChunksEmbedded(int count) {
+        chunksEmbedded.addAndGet(count);
+    }
+
+    void addRelationships(int count) {
+        relationships.addAndGet(count);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Ingestion of module " + moduleName + " was cancelled");
+        }
+    }
+
+    public Stage stage() {
+        return stage;
+    }
+
+    public int chunksEmbedded() {
+        return chunksEmbedded.get();
+    }
+
+    public long elapsedMs() {
+        if (startedAt == 0) {
+            return 0;
+        }
+        return (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    public double chunksPerSecond() {
+        long elapsed = elapsedMs();
+        return elapsed == 0 ? 0 : chunksEmbedded.get() * 1000.0 / elapsed;
+    }
+
+    public IngestionService.Summary summary() {
+        return new IngestionService.Summary(moduleName,
+                types.get(),
+                methods.get(),
+                endpoints.get(),
+                chunks.get(),
+                relationships.get(),
+                elapsedMs());
+    }
+}
@@ -1,13 +1,20 @@
 package com.khalid698.tutorials.codegraph.ingest;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import com.khalid698.tutorials.codegraph.ai.EmbeddingService;
@@ -17,6 +24,7 @@ import com.khalid698.tutorials.codegraph.domain.MethodDef;
 import com.khalid698.tutorials.codegraph.domain.ParsedModule;
 import com.khalid698.tutorials.codegraph.domain.TypeDef;
 import com.khalid698.tutorials.codegraph.domain.TypeDependency;
+import com.khalid698.tutorials.codegraph.neo4j.GraphReader;
 import com.khalid698.tutorials.codegraph.neo4j.GraphWriter;
 import com.khalid698.tutorials.codegraph.neo4j.model.ChunkNode;
 import com.khalid698.tutorials.codegraph.neo4j.model.EndpointImplementsMethod;
@@ -24,62 +32,341 @@ import com.khalid698.tutorials.codegraph.neo4j.model.EndpointNode;
 import com.khalid698.tutorials.codegraph.neo4j.model.MethodNode;
 import com.khalid698.tutorials.codegraph.neo4j.model.ModuleContainsType;
 import com.khalid698.tutorials.codegraph.neo4j.model.ModuleNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.SourceFileNode;
 import com.khalid698.tutorials.codegraph.neo4j.model.TypeDeclaresMethod;
 import com.khalid698.tutorials.codegraph.neo4j.model.TypeExposesEndpoint;
 import com.khalid698.tutorials.codegraph.neo4j.model.TypeNode;
-import com.khalid698.tutorials.codegraph.neo4j.model.UpsertResult;
+import com.khalid698.tutorials.codegraph.projection.GraphProjections;
 import com.khalid698.tutorials.codegraph.spoon.SpoonCodeParser;
 
 @Service
 public class IngestionService {
 
+    private static final Logger log = LoggerFactory.getLogger(IngestionService.class);
+
     private final GraphWriter graphWriter;
+    private final GraphReader graphReader;
     private final ChunkingService chunkingService;
     private final EmbeddingService embeddingService;
+    private final SourceFileScanner sourceFileScanner;
+    private final GraphProjections graphProjections;
+    private final ExecutorService pipelineExecutor;
+    private final int pipelineBatchSize;
+    private final int pipelineQueueCapacity;
+    private final int pipelineWorkers;
+    private final int snippetCacheFiles;
+    private final int parseParallelism;
+    private final int streamBatchFiles;
 
     public IngestionService(GraphWriter graphWriter,
+                            GraphReader graphReader,
                             ChunkingService chunkingService,
-                            EmbeddingService embeddingService) {
+                            EmbeddingService embeddingService,
+                            SourceFileScanner sourceFileScanner,
+                            GraphProjections graphProjections,
+                            @Qualifier("ingestPipelineExecutor") ExecutorService pipelineExecutor,
+                            @Value("${app.ingest.pipeline.batch-size:256}") int pipelineBatchSize,
+                            @Value("${app.ingest.pipeline.queue-capacity:4}") int pipelineQueueCapacity,
+                            @Value("${app.ingest.pipeline.workers:2}") int pipelineWorkers,
+                            @Value("${app.ingest.snippet-cache-files:64}") int snippetCacheFiles,
+                            @Value("${app.ingest.parse-parallelism:1}") int parseParallelism,
+                            @Value("${app.ingest.stream-batch-files:200}") int streamBatchFiles) {
         this.graphWriter = graphWriter;
+        this.graphReader = graphReader;
         this.chunkingService = chunkingService;
         this.embeddingService = embeddingService;
+        this.sourceFileScanner = sourceFileScanner;
+        this.graphProjections = graphProjections;
+        this.pipelineExecutor = pipelineExecutor;
+        this.pipelineBatchSize = Math.max(1, pipelineBatchSize);
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+        this.pipelineWorkers = pipelineWorkers;
+        this.snippetCacheFiles = snippetCacheFiles;
+        this.parseParallelism = parseParallelism;
+        this.streamBatchFiles = streamBatchFiles;
+    }
+
+    public Summary ingest(String repoPath, String moduleName, IngestOptions options) {
+        return ingest(repoPath, moduleName, options, new IngestionProgress(moduleName));
     }
 
-    public Summary ingest(String repoPath, String moduleName, boolean includeTests, Integer chunkChars, Integer overlap, boolean embed) {
-        long start = System.currentTimeMillis();
+    /**
+     * Runs the ingest while publishing stage and counts to {@code progress}. Throws
+     * {@link CancellationException} at the next stage boundary once the
+     * progress is cancelled or the calling thread is interrupted.
+     */
+    public Summary ingest(String repoPath, String moduleName, IngestOptions options, IngestionProgress progress) {
+        progress.start();
+        progress.stage(IngestionProgress.Stage.SCANNING);
+        String sourceRoot = options.includeTests() ? "src" : "src/main/java";
+        Integer chunkChars = options.chunkChars();
+        Integer overlap = options.overlap();
+        boolean embed = options.embed();
+        Map<String, String> fileHashes = sourceFileScanner.scan(repoPath, sourceRoot);
+        SpoonCodeParser parser = new SpoonCodeParser(repoPath, moduleName, sourceRoot);
+
+        FileChanges changes = null;
+        if (options.incremental()) {
+            changes = FileChanges.between(graphReader.sourceFileHashes(moduleName), fileHashes);
+            log.info("Incremental ingest of module {}: {} changed or added, {} deleted, {} unchanged files",
+                    moduleName, changes.changed().size(), changes.deleted().size(), fileHashes.size() - changes.changed().size());
+        }
+
+        boolean unchanged = changes != null && changes.changed().isEmpty() && changes.deleted().isEmpty();
+        boolean completed = false;
+        try {
+            List<String> chunkIds = options.streaming()
+                    ? ingestInBatches(parser, repoPath, moduleName, changes != null ? changes.changed() : fileHashes.keySet(),
+                            changes, chunkChars, overlap, embed, progress)
+                    : ingestAtOnce(parser, repoPath, moduleName, changes, chunkChars, overlap, embed, progress);
+
+            if (changes != null) {
+                long deleted = graphWriter.deleteStaleChunks(moduleName, changes.touched(), chunkIds);
+                log.info("Removed {} stale chunks for module {}", deleted, moduleName);
+            }
 
-        SpoonCodeParser parser = new SpoonCodeParser(repoPath, moduleName, includeTests ? "src" : "src/main/java");
-        ParsedModule parsed = parser.parse();
+            // recorded last so a failed run is picked up again by the next incremental ingest
+            Collection<String> recordedFiles = changes != null ? changes.changed() : fileHashes.keySet();
+            graphWriter.upsertSourceFiles(recordedFiles.stream()
+                    .map(path -> new SourceFileNode(moduleName, path, fileHashes.get(path)))
+                    .toList());
+            completed = true;
+        } finally {
+            // also after a failed or cancelled run, which may have left partial writes behind;
+            // an incremental run without changes leaves the graph, cached answers and projection valid
+            if (!(unchanged && completed)) {
+                bumpIngestVersion(moduleName);
+                graphProjections.refresh(moduleName);
+            }
+        }
+
+        progress.finish();
+        return progress.summary();
+    }
+
+    private void bumpIngestVersion(String moduleName) {
+        try {
+            long version = graphWriter.bumpIngestVersion(moduleName);
+            log.info("Module {} is now at ingest version {}", moduleName, version);
+        } catch (RuntimeException e) {
+            log.info("Unable to bump ingest version of module {}: {}", moduleName, e.getMessage());
+        }
+    }
 
-        UpsertResult modResult = graphWriter.upsertModules(List.of(new ModuleNode(moduleName, repoPath)));
-        UpsertResult typeResult = graphWriter.upsertTypes(mapTypes(parsed.types()));
-        UpsertResult methodResult = graphWriter.upsertMethods(mapMethods(parsed.methods()));
-        UpsertResult endpointResult = graphWriter.upsertEndpoints(mapEndpoints(parsed.endpoints()));
+    private List<String> ingestAtOnce(SpoonCodeParser parser, String repoPath, String moduleName, FileChanges changes,
+                                      Integer chunkChars, Integer overlap, boolean embed, IngestionProgress progress) {
+        progress.stage(IngestionProgress.Stage.PARSING);
+        ParsedModule parsed = changes != null
+                ? parser.parseFiles(changes.changed(), parseParallelism)
+                : parser.parse(parseParallelism);
+        progress.addTypes(parsed.types().size());
+        progress.addMethods(parsed.methods().size());
+        progress.addEndpoints(parsed.endpoints().size());
+
+        progress.stage(IngestionProgress.Stage.WRITING_NODES);
+        graphWriter.upsertModules(List.of(new ModuleNode(moduleName, repoPath)));
+        if (changes != null) {
+            long deleted = deleteStaleContent(moduleName, changes.touched(), parsed);
+            deleted += graphWriter.deleteSourceFiles(moduleName, changes.deleted());
+            log.info("Removed {} stale nodes and relationships for module {}", deleted, moduleName);
+        }
+
+        // graph nodes/relationships and chunks touch disjoint nodes, so they are written concurrently
+        CompletableFuture<Void> graphWrites = CompletableFuture.runAsync(() -> {
+            writeGraph(parsed, moduleName, progress);
+            writeDependencies(parsed.dependencies(), moduleName, progress);
+        }, pipelineExecutor);
+        ChunkStream chunks = new ChunkStream(repoPath, chunkChars, overlap, embed, progress);
+        try {
+            progress.stage(IngestionProgress.Stage.CHUNKING);
+            for (MethodDef method : parsed.methods()) {
+                if (graphWrites.isCompletedExceptionally()) {
+                    await(graphWrites);
+                }
+                chunks.add(method);
+            }
+            progress.stage(IngestionProgress.Stage.EMBEDDING);
+            List<String> chunkIds = chunks.finish();
+            await(graphWrites);
+            return chunkIds;
+        } catch (RuntimeException e) {
+            chunks.abort();
+            // the version bump and projection refresh after this run must see all of its graph writes
+            graphWrites.exceptionally(error -> null).join();
+            throw e;
+        }
+    }
+
+    /**
+     * Streaming variant for repositories too large to hold as one {@link ParsedModule}: files are
+     * parsed in batches of {@code app.ingest.stream-batch-files}, and each batch is written and
+     * chunked before the next one is parsed. Only type dependencies are kept until the end, because
+     * their targets may be declared in a later batch. In incremental mode stale types and methods
+     * are removed only after the last batch, against the keys of all batches: a class that moved to
+     * a file of another batch keeps its node and the DEPENDS_ON edges of unchanged files into it.
+     */
+    private List<String> ingestInBatches(SpoonCodeParser parser, String repoPath, String moduleName, Collection<String> files,
+                                         FileChanges changes, Integer chunkChars, Integer overlap, boolean embed,
+                                         IngestionProgress progress) {
+        progress.stage(IngestionProgress.Stage.PARSING);
+        graphWriter.upsertModules(List.of(new ModuleNode(moduleName, repoPath)));
+        if (changes != null) {
+            long deleted = graphWriter.deleteStaleFileRelationships(moduleName, changes.deleted());
+            deleted += graphWriter.deleteSourceFiles(moduleName, changes.deleted());
+            log.info("Removed {} relationships and files of deleted files for module {}", deleted, moduleName);
+        }
+
+        List<TypeDependency> dependencies = new ArrayList<>();
+        List<String> keepTypes = new ArrayList<>();
+        List<String> keepMethods = new ArrayList<>();
+        ChunkStream chunks = new ChunkStream(repoPath, chunkChars, overlap, embed, progress);
+        try {
+            parser.parseFilesInBatches(files, streamBatchFiles, batch -> {
+                ParsedModule parsed = batch.parsed();
+                progress.addTypes(parsed.types().size());
+                progress.addMethods(parsed.methods().size());
+                progress.addEndpoints(parsed.endpoints().size());
+                if (changes != null) {
+                    // every file belongs to exactly one batch, so its relationships are removed just before it is rewritten
+                    graphWriter.deleteStaleFileRelationships(moduleName, batch.paths());
+                    keepTypes.addAll(typeKeys(parsed));
+                    keepMethods.addAll(methodKeys(parsed));
+                }
+                CompletableFuture<Void> graphWrites = CompletableFuture.runAsync(
+                        () -> writeGraph(parsed, moduleName, progress), pipelineExecutor);
+                try {
+                    for (MethodDef method : parsed.methods()) {
+                        if (graphWrites.isCompletedExceptionally()) {
+                            break;
+                        }
+                        chunks.add(method);
+                    }
+                } finally {
+                    // a chunking failure must not leave this batch writing behind the version bump
+                    graphWrites.exceptionally(error -> null).join();
+                }
+                await(graphWrites);
+                dependencies.addAll(parsed.dependencies());
+                log.info("Ingested batch {} of module {} ({} files)", batch.index(), moduleName, batch.paths().size());
+            });
+
+            progress.stage(IngestionProgress.Stage.WRITING_NODES);
+            if (changes != null) {
+                long deleted = graphWriter.deleteStaleFileNodes(moduleName, changes.touched(), keepTypes, keepMethods);
+                log.info("Removed {} stale types and methods for module {}", deleted, moduleName);
+            }
+            writeDependencies(dependencies, moduleName, progress);
+            progress.stage(IngestionProgress.Stage.EMBEDDING);
+            return chunks.finish();
+        } catch (RuntimeException e) {
+            chunks.abort();
+            throw e;
+        }
+    }
+
+    private long deleteStaleContent(String moduleName, List<String> paths, ParsedModule parsed) {
+        return graphWriter.deleteStaleFileContent(moduleName, paths, typeKeys(parsed), methodKeys(parsed));
+    }
+
+    private static List<String> typeKeys(ParsedModule parsed) {
+        return parsed.types().stream().map(TypeDef::fqcn).toList();
+    }
+
+    private static List<String> methodKeys(ParsedModule parsed) {
+        return parsed.methods().stream().map(m -> m.declaringTypeFqcn() + "|" + m.signature()).toList();
+    }
+
+    private void writeGraph(ParsedModule parsed, String moduleName, IngestionProgress progress) {
+        graphWriter.upsertTypes(mapTypes(parsed.types()));
+        graphWriter.upsertMethods(mapMethods(parsed.methods()));
+        graphWriter.upsertEndpoints(mapEndpoints(parsed.endpoints()));
+        progress.checkCancelled();
 
         graphWriter.relateModuleContainsTypes(mapModuleContains(parsed.types(), moduleName));
+        progress.addRelationships(parsed.types().size());
         graphWriter.relateTypeDeclaresMethods(mapTypeDeclares(parsed.methods()));
-        graphWriter.relateTypeDependencies(mapTypeDependencies(parsed.dependencies(), moduleName));
+        progress.addRelationships(parsed.methods().size());
         graphWriter.relateTypeExposesEndpoints(mapTypeExposes(parsed.endpoints(), parsed.types()));
+        progress.addRelationships(parsed.endpoints().size());
         graphWriter.relateEndpointImplementsMethods(mapEndpointImplements(parsed.endpoints()));
+    }
+
+    private void writeDependencies(List<TypeDependency> dependencies, String moduleName, IngestionProgress progress) {
+        graphWriter.relateTypeDependencies(mapTypeDependencies(dependencies, moduleName));
+        progress.addRelationships(dependencies.size());
+    }
+
+    /**
+     * Chunks methods on the calling thread and hands batches of {@code app.ingest.pipeline.batch-size}
+     * chunks to the pipeline workers, which embed and upsert them while chunking continues.
+     */
+    private final class ChunkStream {
+
+        private final ChunkPipeline pipeline;
+        private final SourceSnippetReader snippets;
+        private final Integer chunkChars;
+        private final Integer overlap;
+        private final IngestionProgress progress;
+        private final List<String> chunkIds = new ArrayList<>();
+        private List<ChunkDoc> batch = new ArrayList<>();
+
+        ChunkStream(String repoPath, Integer chunkChars, Integer overlap, boolean embed, IngestionProgress progress) {
+            Consumer<List<ChunkDoc>> sink = embed
+                    ? docs -> {
+                        progress.checkCancelled();
+                        embeddingService.embedAndPersistChunks(docs, progress::addChunksEmbedded);
+                    }
+                    : docs -> {
+                        progress.checkCancelled();
+                        graphWriter.upsertChunks(mapChunkNodes(docs));
+                    };
+            this.pipeline = new ChunkPipeline(pipelineWorkers, pipelineQueueCapacity, sink, pipelineExecutor);
+            this.snippets = new SourceSnippetReader(repoPath, snippetCacheFiles);
+            this.chunkChars = chunkChars;
+            this.overlap = overlap;
+            this.progress = progress;
+        }
+
+        void add(MethodDef method) {
+            progress.checkCancelled();
+            for (ChunkDoc doc : buildChunks(snippets, method, chunkChars, overlap)) {
+                batch.add(doc);
+                chunkIds.add(doc.id());
+            }
+            if (batch.size() >= pipelineBatchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Submits the last partial batch, waits for the workers and returns the ids of all chunks.
+         */
+        List<String> finish() {
+            flush();
+            pipeline.finish();
+            return chunkIds;
+        }
 
-        List<ChunkDoc> chunkDocs = buildChunks(repoPath, parsed.methods(), chunkChars, overlap);
-        UpsertResult chunkResult = embed
-                ? embeddingService.embedAndPersistChunks(chunkDocs)
-                : graphWriter.upsertChunks(mapChunkNodes(chunkDocs));
+        void abort() {
+            pipeline.abort();
+        }
 
-        long duration = System.currentTimeMillis() - start;
-        int relationships = parsed.dependencies().size()
-                + parsed.methods().size()
-                + parsed.types().size()
-                + parsed.endpoints().size();
+        private void flush() {
+            pipeline.submit(batch);
+            progress.addChunks(batch.size());
+            batch = new ArrayList<>();
+        }
+    }
 
-        return new Summary(moduleName,
-                parsed.types().size(),
-                parsed.methods().size(),
-                parsed.endpoints().size(),
-                chunkDocs.size(),
-                relationships,
-                duration);
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for graph writes");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
     }
 
     private List<TypeNode> mapTypes(List<TypeDef> defs) {
@@ -156,28 +443,24 @@ public class IngestionService {
                 .toList();
     }
 
-    private List<ChunkDoc> buildChunks(String repoPath, List<MethodDef> methods, Integer chunkChars, Integer overlap) {
-        if (CollectionUtils.isEmpty(methods)) {
-            return List.of();
-        }
-        List<ChunkDoc> chunks = new ArrayList<>();
-        for (MethodDef method : methods) {
-            String snippet = readSnippet(repoPath, method.path(), method.startLine(), method.endLine());
-            chunkingService.chunkMethod(method, List.of(), snippet, chunkChars, overlap)
-                    .forEach(c -> chunks.add(new ChunkDoc(
-                            c.id(),
-                            c.moduleName(),
-                            c.ownerFqcn(),
-                            c.ownerSignature(),
-                            c.path(),
-                            c.startLine(),
-                            c.endLine(),
-                            c.kind(),
-                            c.text(),
-                            c.textHash()
-                    )));
-        }
-        return chunks;
+    private List<ChunkDoc> buildChunks(SourceSnippetReader snippets, MethodDef method, Integer chunkChars, Integer overlap) {
+        String snippet = StringUtils.hasText(method.sourceText())
+                ? method.sourceText()
+                : snippets.snippet(method.path(), method.startLine(), method.endLine());
+        return chunkingService.chunkMethod(method, List.of(), snippet, chunkChars, overlap).stream()
+                .map(c -> new ChunkDoc(
+                        c.id(),
+                        c.moduleName(),
+                        c.ownerFqcn(),
+                        c.ownerSignature(),
+                        c.path(),
+                        c.startLine(),
+                        c.endLine(),
+                        c.kind(),
+                        c.text(),
+                        c.textHash()
+                ))
+                .toList();
     }
 
     private List<ChunkNode> mapChunkNodes(List<ChunkDoc> docs) {
@@ -197,25 +480,23 @@ public class IngestionService {
         )).toList();
     }
 
-    private String readSnippet(String repoPath, String relativePath, Integer startLine, Integer endLine) {
-        if (!StringUtils.hasText(relativePath) || startLine == null || endLine == null) {
-            return "";
-        }
-        Path file = Path.of(repoPath).resolve(relativePath);
-        if (!Files.exists(file)) {
-            return "";
+    private record FileChanges(List<String> changed, List<String> deleted) {
+
+        static FileChanges between(Map<String, String> stored, Map<String, String> current) {
+            List<String> changed = current.entrySet().stream()
+                    .filter(e -> !e.getValue().equals(stored.get(e.getKey())))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            List<String> deleted = stored.keySet().stream()
+                    .filter(path -> !current.containsKey(path))
+                    .toList();
+            return new FileChanges(changed, deleted);
         }
-        try {
-            List<String> lines = Files.readAllLines(file);
-            int from = Math.max(1, startLine);
-            int to = Math.min(lines.size(), endLine);
-            StringBuilder sb = new StringBuilder();
-            for (int i = from; i <= to; i++) {
-                sb.append(lines.get(i - 1)).append("\n");
-            }
-            return sb.toString();
-        } catch (IOException e) {
-            return "";
+
+        List<String> touched() {
+            List<String> touched = new ArrayList<>(changed);
+            touched.addAll(deleted);
+            return touched;
         }
     }
 
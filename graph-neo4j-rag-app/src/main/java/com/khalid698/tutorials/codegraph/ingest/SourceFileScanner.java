@@ -0,0 +1,52 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashes the Java sources under a module's source root so incremental ingestion can tell which
+ * files were added, changed or deleted since the previous run. Paths are relative to the
+ * repository root, matching the {@code path} stored on Type, Method and Chunk nodes.
+ */
+@Component
+public class SourceFileScanner {
+
+    public Map<String, String> scan(String repoPath, String sourceRoot) {
+        Path root = Paths.get(repoPath).toAbsolutePath().normalize();
+        Path sources = root.resolve(sourceRoot).normalize();
+        Map<String, String> hashes = new TreeMap<>();
+        if (!Files.isDirectory(sources)) {
+            return hashes;
+        }
+        try (Stream<Path> files = Files.walk(sources)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".java"))
+                    .forEach(file -> hashes.put(root.relativize(file.toAbsolutePath().normalize()).toString(), sha256(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to scan sources under " + sources, e);
+        }
+        return hashes;
+    }
+
+    private String sha256(Path file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + file, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.khalid698.tutorials.codegraph.ingest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Extracts line ranges from source files for the lifetime of one ingest. Each file is read once
+ * and kept together with an index of line start offsets in a small LRU cache keyed by path and
+ * modification time, so the methods of a class are sliced from the same in-memory text.
+ */
+final class SourceSnippetReader {
+
+    private final Path repoRoot;
+    private final Map<Path, SourceText> cache;
+
+    SourceSnippetReader(String repoPath, int maxFiles) {
+        this.repoRoot = Path.of(repoPath);
+        int capacity = Math.max(1, maxFiles);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, SourceText> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns lines {@code startLine..endLine} (1-based, inclusive), each terminated by {@code \n},
+     * or an empty string when the file or range is not available.
+     */
+    String snippet(String relativePath, Integer startLine, Integer endLine) {
+        if (!StringUtils.hasText(relativePath) || startLine == null || endLine == null) {
+            return "";
+        }
+        SourceText source = load(repoRoot.resolve(relativePath));
+        return source == null ? "" : source.lines(startLine, endLine);
+    }
+
+    private SourceText load(Path file) {
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            SourceText cached = cache.get(file);
+            if (cached != null && cached.modified() == modified) {
+                return cached;
+            }
+            SourceText loaded = SourceText.of(Files.readString(file), modified);
+            cache.put(file, loaded);
+            return loaded;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private record SourceText(String content, int[] lineStarts, long modified) {
+
+        static SourceText of(String content, long modified) {
+            int[] starts = new int[16];
+            int count = 0;
+            int length = content.length();
+            if (length > 0) {
+                starts[count++] = 0;
+            }
+            for (int i = 0; i < length; i++) {
+                char c = content.charAt(i);
+                if (c != '\n' && c != '\r') {
+                    continue;
+                }
+                if (c == '\r' && i + 1 < length && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                if (i + 1 < length) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i + 1;
+                }
+            }
+            return new SourceText(content, Arrays.copyOf(starts, count), modified);
+        }
+
+        String lines(int startLine, int endLine) {
+            int from = Math.max(1, startLine);
+            int to = Math.min(lineStarts.length, endLine);
+            if (from > to) {
+                return "";
+            }
+            int end = to < lineStarts.length ? lineStarts[to] : content.length();
+            String slice = content.substring(lineStarts[from - 1], end);
+            if (slice.indexOf('\r') >= 0) {
+                slice = slice.replace("\r\n", "\n").replace('\r', '\n');
+            }
+            return slice.endsWith("\n") ? slice : slice + "\n";
+        }
+    }
+}
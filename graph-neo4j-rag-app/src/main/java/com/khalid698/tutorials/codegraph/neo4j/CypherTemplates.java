@@ -0,0 +1,93 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registry of the Cypher templates under {@code classpath:cypher/}. All {@code *.cypher} files are
+ * read once at startup and served from an immutable map keyed by their classpath location, e.g.
+ * {@code cypher/upsertTypesBatch.cypher}. Returning the same string for every call also keeps the
+ * query text stable for the server's plan cache. With {@code app.cypher.hot-reload} enabled (dev
+ * only) templates are re-read from the classpath on every call instead.
+ */
+@Component
+public class CypherTemplates {
+
+    private static final Logger log = LoggerFactory.getLogger(CypherTemplates.class);
+
+    private static final String LOCATION_PATTERN = "classpath*:cypher/*.cypher";
+    private static final String DIRECTORY = "cypher/";
+
+    private final Map<String, String> templates;
+    private final boolean hotReload;
+
+    public CypherTemplates(@Value("${app.cypher.hot-reload:false}") boolean hotReload) {
+        this.hotReload = hotReload;
+        this.templates = loadAll();
+        log.info("Loaded {} Cypher templates{}", templates.size(), hotReload ? " (hot reload enabled)" : "");
+    }
+
+    public String load(String classpathLocation) {
+        if (hotReload) {
+            return read(new ClassPathResource(classpathLocation), classpathLocation);
+        }
+        String cypher = templates.get(classpathLocation);
+        if (cypher == null) {
+            throw new IllegalArgumentException("Unknown Cypher template: " + classpathLocation);
+        }
+        return cypher;
+    }
+
+    /**
+     * Fails with {@link IllegalStateException} unless every given template was found at startup.
+     * Components call this from their constructor so a missing template stops the context early.
+     */
+    public void require(String... classpathLocations) {
+        List<String> missing = List.of(classpathLocations).stream()
+                .filter(location -> !templates.containsKey(location))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing Cypher templates: " + missing);
+        }
+    }
+
+    private Map<String, String> loadAll() {
+        Map<String, String> loaded = new TreeMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION_PATTERN)) {
+                String location = DIRECTORY + resource.getFilename();
+                String cypher = read(resource, location);
+                if (!StringUtils.hasText(cypher)) {
+                    throw new IllegalStateException("Empty Cypher template: " + location);
+                }
+                loaded.putIfAbsent(location, cypher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list Cypher templates", e);
+        }
+        return Map.copyOf(loaded);
+    }
+
+    private String read(Resource resource, String location) {
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to load Cypher template: " + location, e);
+        }
+    }
+}
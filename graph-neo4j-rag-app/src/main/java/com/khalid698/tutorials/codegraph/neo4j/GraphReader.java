@@ -0,0 +1,54 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class GraphReader {
+
+    private static final String SOURCE_FILE_HASHES = "cypher/sourceFileHashes.cypher";
+    private static final String MODULE_INGEST_VERSIONS = "cypher/moduleIngestVersions.cypher";
+
+    private final Neo4jClient neo4jClient;
+    private final CypherTemplates templates;
+
+    public GraphReader(Neo4jClient neo4jClient, CypherTemplates templates) {
+        this.neo4jClient = neo4jClient;
+        this.templates = templates;
+        templates.require(SOURCE_FILE_HASHES, MODULE_INGEST_VERSIONS);
+    }
+
+    /**
+     * Returns the content hash recorded for each source file of the module by the last ingest,
+     * keyed by repository-relative path.
+     */
+    public Map<String, String> sourceFileHashes(String module) {
+        List<Map<String, Object>> rows = neo4jClient.executeRead(templates.load(SOURCE_FILE_HASHES), Map.of("module", module));
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            Object path = row.get("path");
+            Object hash = row.get("hash");
+            if (path != null && hash != null) {
+                hashes.put(path.toString(), hash.toString());
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns a token that changes whenever an ingest of the module finishes, or of any module when
+     * {@code module} is null; built from the {@code ingestVersion} counters on the Module nodes.
+     */
+    public CompletableFuture<String> ingestVersionAsync(String module) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("module", module);
+        return neo4jClient.queryAsync(templates.load(MODULE_INGEST_VERSIONS), params,
+                        record -> record.get("name").asString() + ":" + record.get("version").asLong())
+                .thenApply(versions -> String.join(",", versions));
+    }
+}
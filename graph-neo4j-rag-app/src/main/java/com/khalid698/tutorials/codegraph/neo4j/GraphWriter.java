@@ -0,0 +1,403 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.khalid698.tutorials.codegraph.neo4j.model.ChunkNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.ChunkOfMethod;
+import com.khalid698.tutorials.codegraph.neo4j.model.EndpointImplementsMethod;
+import com.khalid698.tutorials.codegraph.neo4j.model.EndpointNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.MethodNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.ModuleContainsType;
+import com.khalid698.tutorials.codegraph.neo4j.model.ModuleNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.SourceFileNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.TypeDeclaresMethod;
+import com.khalid698.tutorials.codegraph.neo4j.model.TypeDependency;
+import com.khalid698.tutorials.codegraph.neo4j.model.TypeExposesEndpoint;
+import com.khalid698.tutorials.codegraph.neo4j.model.TypeNode;
+import com.khalid698.tutorials.codegraph.neo4j.model.UpsertResult;
+
+@Component
+public class GraphWriter {
+
+    private static final String UPSERT_MODULES = "cypher/upsertModulesBatch.cypher";
+    private static final String UPSERT_TYPES = "cypher/upsertTypesBatch.cypher";
+    private static final String UPSERT_METHODS = "cypher/upsertMethodsBatch.cypher";
+    private static final String UPSERT_ENDPOINTS = "cypher/upsertEndpointsBatch.cypher";
+    private static final String UPSERT_CHUNKS = "cypher/upsertChunksBatch.cypher";
+    private static final String REL_MODULE_CONTAINS_TYPES = "cypher/relModuleContainsTypes.cypher";
+    private static final String REL_TYPE_DECLARES_METHODS = "cypher/relTypeDeclaresMethods.cypher";
+    private static final String REL_TYPE_DEPENDENCIES = "cypher/relTypeDependencies.cypher";
+    private static final String REL_TYPE_EXPOSES_ENDPOINTS = "cypher/relTypeExposesEndpoints.cypher";
+    private static final String REL_ENDPOINT_IMPLEMENTS_METHODS = "cypher/relEndpointImplementsMethods.cypher";
+    private static final String REL_CHUNK_OF_METHODS = "cypher/relChunkOfMethods.cypher";
+    private static final String UPSERT_SOURCE_FILES = "cypher/upsertSourceFilesBatch.cypher";
+    private static final String DELETE_SOURCE_FILES = "cypher/deleteSourceFiles.cypher";
+    private static final String DELETE_STALE_FILE_RELATIONSHIPS = "cypher/deleteStaleFileRelationships.cypher";
+    private static final String DELETE_STALE_FILE_NODES = "cypher/deleteStaleFileNodes.cypher";
+    private static final String DELETE_STALE_CHUNKS = "cypher/deleteStaleChunks.cypher";
+    private static final String BUMP_INGEST_VERSION = "cypher/bumpModuleIngestVersion.cypher";
+
+    private final Neo4jClient neo4jClient;
+    private final CypherTemplates templates;
+    private final ExecutorService writeExecutor;
+    private final int nodeBatchSize;
+    private final int relationshipBatchSize;
+    private final int chunkBatchSize;
+    private final int parallelism;
+
+    public GraphWriter(Neo4jClient neo4jClient,
+                       CypherTemplates templates,
+                       @Qualifier("graphWriteExecutor") ExecutorService writeExecutor,
+                       @Value("${app.graph.write.node-batch-size:5000}") int nodeBatchSize,
+                       @Value("${app.graph.write.relationship-batch-size:10000}") int relationshipBatchSize,
+                       @Value("${app.graph.write.chunk-batch-size:500}") int chunkBatchSize,
+                       @Value("${app.graph.write.parallelism:4}") int parallelism) {
+        this.neo4jClient = neo4jClient;
+        this.templates = templates;
+        this.writeExecutor = writeExecutor;
+        this.nodeBatchSize = Math.max(1, nodeBatchSize);
+        this.relationshipBatchSize = Math.max(1, relationshipBatchSize);
+        this.chunkBatchSize = Math.max(1, chunkBatchSize);
+        this.parallelism = Math.max(1, parallelism);
+        templates.require(UPSERT_MODULES, UPSERT_TYPES, UPSERT_METHODS, UPSERT_ENDPOINTS, UPSERT_CHUNKS,
+                REL_MODULE_CONTAINS_TYPES, REL_TYPE_DECLARES_METHODS, REL_TYPE_DEPENDENCIES, REL_TYPE_EXPOSES_ENDPOINTS,
+                REL_ENDPOINT_IMPLEMENTS_METHODS, REL_CHUNK_OF_METHODS, UPSERT_SOURCE_FILES, DELETE_SOURCE_FILES,
+                DELETE_STALE_FILE_RELATIONSHIPS, DELETE_STALE_FILE_NODES, DELETE_STALE_CHUNKS, BUMP_INGEST_VERSION);
+    }
+
+    public UpsertResult upsertModules(List<ModuleNode> modules) {
+        return writeNodes(UPSERT_MODULES, "modules", toPayload(modules, this::modulePayload), "name");
+    }
+
+    public UpsertResult upsertTypes(List<TypeNode> types) {
+        return writeNodes(UPSERT_TYPES, "types", toPayload(types, this::typePayload), "module", "fqcn");
+    }
+
+    public UpsertResult upsertMethods(List<MethodNode> methods) {
+        return writeNodes(UPSERT_METHODS, "methods", toPayload(methods, this::methodPayload), "module", "fqcn", "signature");
+    }
+
+    public UpsertResult upsertEndpoints(List<EndpointNode> endpoints) {
+        return writeNodes(UPSERT_ENDPOINTS, "endpoints", toPayload(endpoints, this::endpointPayload), "module", "httpMethod", "path");
+    }
+
+    public UpsertResult upsertChunks(List<ChunkNode> chunks) {
+        return writeBatches(UPSERT_CHUNKS, "chunks", toPayload(chunks, this::chunkPayload), chunkBatchSize);
+    }
+
+    public UpsertResult relateModuleContainsTypes(List<ModuleContainsType> relationships) {
+        return writeBatches(REL_MODULE_CONTAINS_TYPES, "relationships", toPayload(relationships, this::moduleContainsTypePayload), relationshipBatchSize);
+    }
+
+    public UpsertResult relateTypeDeclaresMethods(List<TypeDeclaresMethod> relationships) {
+        return writeBatches(REL_TYPE_DECLARES_METHODS, "relationships", toPayload(relationships, this::typeDeclaresMethodPayload), relationshipBatchSize);
+    }
+
+    public UpsertResult relateTypeDependencies(List<TypeDependency> relationships) {
+        return writeBatches(REL_TYPE_DEPENDENCIES, "relationships", toPayload(relationships, this::typeDependencyPayload), relationshipBatchSize);
+    }
+
+    public UpsertResult relateTypeExposesEndpoints(List<TypeExposesEndpoint> relationships) {
+        return writeBatches(REL_TYPE_EXPOSES_ENDPOINTS, "relationships", toPayload(relationships, this::typeExposesEndpointPayload), relationshipBatchSize);
+    }
+
+    public UpsertResult relateEndpointImplementsMethods(List<EndpointImplementsMethod> relationships) {
+        return writeBatches(REL_ENDPOINT_IMPLEMENTS_METHODS, "relationships", toPayload(relationships, this::endpointImplementsMethodPayload), relationshipBatchSize);
+    }
+
+    public UpsertResult relateChunkOfMethods(List<ChunkOfMethod> relationships) {
+        return writeBatches(REL_CHUNK_OF_METHODS, "relationships", toPayload(relationships, this::chunkOfMethodPayload), relationshipBatchSize);
+    }
+
+    // every file is MERGEd onto the one Module node, so the batches run sequentially like relationships
+    public UpsertResult upsertSourceFiles(List<SourceFileNode> files) {
+        return writeBatches(UPSERT_SOURCE_FILES, "files", toPayload(files, this::sourceFilePayload), relationshipBatchSize);
+    }
+
+    public long deleteSourceFiles(String module, List<String> paths) {
+        if (paths == null || paths.isEmpty()) {
+            return 0;
+        }
+        return delete(DELETE_SOURCE_FILES, Map.of("module", module, "paths", paths));
+    }
+
+    /**
+     * Removes what a previous ingest stored for the given files but the current parse no longer
+     * produced, in one transaction: see {@link #deleteStaleFileRelationships(String, List)} and
+     * {@link #deleteStaleFileNodes(String, List, List, List)}.
+     */
+    public long deleteStaleFileContent(String module, List<String> paths, List<String> keepTypes, List<String> keepMethods) {
+        if (paths == null || paths.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> params = staleFileParams(module, paths, keepTypes, keepMethods);
+        return neo4jClient.writeTransaction(tx -> deleted(tx.run(templates.load(DELETE_STALE_FILE_RELATIONSHIPS), params))
+                + deleted(tx.run(templates.load(DELETE_STALE_FILE_NODES), params)));
+    }
+
+    /**
+     * Removes the endpoints and outgoing DEPENDS_ON edges of the files' types, which are re-created
+     * from the new parse. Types and methods stay, so edges into them from other files survive.
+     */
+    public long deleteStaleFileRelationships(String module, List<String> paths) {
+        if (paths == null || paths.isEmpty()) {
+            return 0;
+        }
+        return delete(DELETE_STALE_FILE_RELATIONSHIPS, staleFileParams(module, paths, null, null));
+    }
+
+    /**
+     * Removes methods and types still stored for the given files that are not in the keep sets.
+     * Methods are kept by {@code fqcn|signature}; a type that moved to another file is kept by its
+     * fqcn and no longer matches the old path anyway.
+     */
+    public long deleteStaleFileNodes(String module, List<String> paths, List<String> keepTypes, List<String> keepMethods) {
+        if (paths == null || paths.isEmpty()) {
+            return 0;
+        }
+        return delete(DELETE_STALE_FILE_NODES, staleFileParams(module, paths, keepTypes, keepMethods));
+    }
+
+    private static Map<String, Object> staleFileParams(String module, List<String> paths, List<String> keepTypes, List<String> keepMethods) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("module", module);
+        params.put("paths", paths);
+        params.put("keepTypes", keepTypes == null ? List.of() : keepTypes);
+        params.put("keepMethods", keepMethods == null ? List.of() : keepMethods);
+        return params;
+    }
+
+    public long deleteStaleChunks(String module, List<String> paths, List<String> keepChunkIds) {
+        if (paths == null || paths.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("module", module);
+        params.put("paths", paths);
+        params.put("keepChunkIds", keepChunkIds == null ? List.of() : keepChunkIds);
+        return delete(DELETE_STALE_CHUNKS, params);
+    }
+
+    /**
+     * Increments {@code ingestVersion} on the Module node, which invalidates cached query responses
+     * for the module. Returns the new version, or 0 when the module does not exist.
+     */
+    public long bumpIngestVersion(String module) {
+        List<Map<String, Object>> rows = neo4jClient.executeWrite(templates.load(BUMP_INGEST_VERSION), Map.of("module", module));
+        return rows.isEmpty() || !(rows.get(0).get("version") instanceof Number version) ? 0 : version.longValue();
+    }
+
+    private long delete(String templatePath, Map<String, Object> params) {
+        return deleted(neo4jClient.executeWrite(templates.load(templatePath), params));
+    }
+
+    private static long deleted(List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        return rows.get(0).get("deleted") instanceof Number number ? number.longValue() : 0;
+    }
+
+    /**
+     * Upserts nodes in batches of {@code nodeBatchSize}. Larger payloads are split into up to
+     * {@code parallelism} partitions by hash of the node key, so concurrent transactions never MERGE
+     * the same node; each partition commits its batches in order on the write executor.
+     */
+    private UpsertResult writeNodes(String templatePath, String parameter, List<Map<String, Object>> payload, String... keyFields) {
+        int partitionCount = Math.min(parallelism, (payload.size() + nodeBatchSize - 1) / nodeBatchSize);
+        if (partitionCount <= 1) {
+            return writeBatches(templatePath, parameter, payload, nodeBatchSize);
+        }
+        List<List<Map<String, Object>>> partitions = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (Map<String, Object> item : payload) {
+            Object[] key = Arrays.stream(keyFields).map(item::get).toArray();
+            partitions.get(Math.floorMod(Arrays.hashCode(key), partitionCount)).add(item);
+        }
+        List<Future<UpsertResult>> futures = partitions.stream()
+                .map(partition -> writeExecutor.submit(() -> writeBatches(templatePath, parameter, partition, nodeBatchSize)))
+                .toList();
+        UpsertResult result = UpsertResult.empty();
+        try {
+            for (Future<UpsertResult> future : futures) {
+                result = result.plus(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while writing " + templatePath);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * Commits the payload in sequential transactions of at most {@code batchSize} rows on one
+     * session. Used for relationships, whose MERGE locks both end nodes and would deadlock when
+     * run concurrently.
+     */
+    private UpsertResult writeBatches(String templatePath, String parameter, List<Map<String, Object>> payload, int batchSize) {
+        if (payload.isEmpty()) {
+            return UpsertResult.empty();
+        }
+        String cypher = templates.load(templatePath);
+        return neo4jClient.withSession(session -> {
+            UpsertResult result = UpsertResult.empty();
+            for (int from = 0; from < payload.size(); from += batchSize) {
+                List<Map<String, Object>> batch = payload.subList(from, Math.min(payload.size(), from + batchSize));
+                result = result.plus(UpsertResult.fromRows(session.executeWrite(cypher, Map.of(parameter, batch))));
+            }
+            return result;
+        });
+    }
+
+    private <T> List<Map<String, Object>> toPayload(List<T> items, java.util.function.Function<T, Map<String, Object>> mapper) {
+        if (items == null || items.isEmpty()) {
+            return List.of();
+        }
+        return items.stream().map(mapper).toList();
+    }
+
+    private Map<String, Object> modulePayload(ModuleNode module) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", module.name());
+        map.put("path", module.path());
+        return map;
+    }
+
+    private Map<String, Object> typePayload(TypeNode type) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("module", type.module());
+        map.put("fqcn", type.fqcn());
+        map.put("name", type.name());
+        map.put("kind", type.kind());
+        map.put("path", type.path());
+        map.put("startLine", type.startLine());
+        map.put("endLine", type.endLine());
+        return map;
+    }
+
+    private Map<String, Object> methodPayload(MethodNode method) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("module", method.module());
+        map.put("fqcn", method.fqcn());
+        map.put("name", method.name());
+        map.put("signature", method.signature());
+        map.put("returnType", method.returnType());
+        map.put("visibility", method.visibility());
+        map.put("static", method.isStatic());
+        map.put("abstract", method.isAbstract());
+        map.put("path", method.path());
+        map.put("startLine", method.startLine());
+        map.put("endLine", method.endLine());
+        return map;
+    }
+
+    private Map<String, Object> endpointPayload(EndpointNode endpoint) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("module", endpoint.module());
+        map.put("httpMethod", endpoint.httpMethod());
+        map.put("path", endpoint.path());
+        return map;
+    }
+
+    private Map<String, Object> chunkPayload(ChunkNode chunk) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", chunk.id());
+        map.put("module", chunk.module());
+        map.put("ownerFqcn", chunk.ownerFqcn());
+        map.put("ownerSignature", chunk.ownerSignature());
+        map.put("path", chunk.path());
+        map.put("startLine", chunk.startLine());
+        map.put("endLine", chunk.endLine());
+        map.put("kind", chunk.kind());
+        map.put("text", chunk.text());
+        map.put("textHash", chunk.textHash());
+        map.put("embeddingModel", chunk.embeddingModel());
+        map.put("embedding", chunk.embedding());
+        return map;
+    }
+
+    private Map<String, Object> sourceFilePayload(SourceFileNode file) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("module", file.module());
+        map.put("path", file.path());
+        map.put("hash", file.hash());
+        return map;
+    }
+
+    private Map<String, Object> moduleContainsTypePayload(ModuleContainsType rel) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("moduleName", rel.moduleName());
+        map.put("typeModule", rel.typeModule());
+        map.put("typeFqcn", rel.typeFqcn());
+        return map;
+    }
+
+    private Map<String, Object> typeDeclaresMethodPayload(TypeDeclaresMethod rel) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("typeModule", rel.typeModule());
+        map.put("typeFqcn", rel.typeFqcn());
+        map.put("methodModule", rel.methodModule());
+        map.put("methodFqcn", rel.methodFqcn());
+        map.put("signature", rel.signature());
+        return map;
+    }
+
+    private Map<String, Object> typeDependencyPayload(TypeDependency rel) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("sourceModule", rel.sourceModule());
+        map.put("sourceFqcn", rel.sourceFqcn());
+        map.put("targetModule", rel.targetModule());
+        map.put("targetFqcn", rel.targetFqcn());
+        map.put("kind", rel.kind());
+        map.put("via", rel.via());
+        return map;
+    }
+
+    private Map<String, Object> typeExposesEndpointPayload(TypeExposesEndpoint rel) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("typeModule", rel.typeModule());
+        map.put("typeFqcn", rel.typeFqcn());
+        map.put("endpointModule", rel.endpointModule());
+        map.put("httpMethod", rel.httpMethod());
+        map.put("path", rel.path());
+        return map;
+    }
+
+    private Map<String, Object> endpointImplementsMethodPayload(EndpointImplementsMethod rel) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("endpointModule", rel.endpointModule());
+        map.put("httpMethod", rel.httpMethod());
+        map.put("path", rel.path());
+        map.put("methodModule", rel.methodModule());
+        map.put("methodFqcn", rel.methodFqcn());
+        map.put("signature", rel.signature());
+        return map;
+    }
+
+    private Map<String, Object> chunkOfMethodPayload(ChunkOfMethod rel) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("chunkId", rel.chunkId());
+        map.put("methodModule", rel.methodModule());
+        map.put("methodFqcn", rel.methodFqcn());
+        map.put("signature", rel.signature());
+        return map;
+    }
+}
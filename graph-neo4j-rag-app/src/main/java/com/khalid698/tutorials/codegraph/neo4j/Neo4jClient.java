@@ -0,0 +1,220 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.TransactionCallback;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.TransactionContext;
+import org.neo4j.driver.async.AsyncSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class Neo4jClient {
+
+    private final Driver driver;
+    private final long fetchSize;
+
+    public Neo4jClient(Driver driver, @Value("${neo4j.fetch-size:1000}") long fetchSize) {
+        this.driver = driver;
+        this.fetchSize = fetchSize;
+    }
+
+    public List<Map<String, Object>> executeRead(String cypher, Map<String, Object> params) {
+        return withSession(session -> session.executeRead(cypher, params));
+    }
+
+    public List<Map<String, Object>> executeWrite(String cypher, Map<String, Object> params) {
+        return withSession(session -> session.executeWrite(cypher, params));
+    }
+
+    /**
+     * Runs a read query and maps each record with {@code mapper}.
+     */
+    public <T> List<T> query(String cypher, Map<String, Object> params, RowMapper<T> mapper) {
+        Objects.requireNonNull(cypher, "cypher must not be null");
+        try (Session session = driver.session()) {
+            return session.executeRead(tx -> tx.run(cypher, toParams(params)).list(mapper::map));
+        }
+    }
+
+    /**
+     * Streams the records of a read query to {@code consumer} as the driver pulls them, in batches
+     * of {@code fetchSize} records, so the result is never held in memory as a whole. Runs as an
+     * auto-commit transaction that is not retried, so each record is delivered exactly once.
+     * Returns the number of records consumed.
+     */
+    public <T> long stream(String cypher, Map<String, Object> params, long fetchSize, RowMapper<T> mapper,
+                           Consumer<? super T> consumer) {
+        Objects.requireNonNull(cypher, "cypher must not be null");
+        long count = 0;
+        try (Session session = driver.session(readConfig(fetchSize))) {
+            Result result = session.run(cypher, toParams(params));
+            while (result.hasNext()) {
+                consumer.accept(mapper.map(result.next()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public <T> long stream(String cypher, Map<String, Object> params, RowMapper<T> mapper, Consumer<? super T> consumer) {
+        return stream(cypher, params, fetchSize, mapper, consumer);
+    }
+
+    /**
+     * Non-blocking variant of {@link #query(String, Map, RowMapper)} on an async session. The
+     * returned future completes on a driver I/O thread, so callers must move blocking follow-up
+     * work to their own executor.
+     */
+    public <T> CompletableFuture<List<T>> queryAsync(String cypher, Map<String, Object> params, RowMapper<T> mapper) {
+        Objects.requireNonNull(cypher, "cypher must not be null");
+        AsyncSession session = driver.session(AsyncSession.class, readConfig(fetchSize));
+        return closeAfter(session, session.executeReadAsync(tx -> tx.runAsync(cypher, toParams(params))
+                .thenCompose(cursor -> cursor.listAsync(mapper::map))));
+    }
+
+    /**
+     * Same as {@link #queryAsync(String, Map, RowMapper)} with a server-side transaction timeout,
+     * for queries whose cost depends on the request, such as path searches.
+     */
+    public <T> CompletableFuture<List<T>> queryAsync(String cypher, Map<String, Object> params, Duration timeout,
+                                                     RowMapper<T> mapper) {
+        Objects.requireNonNull(cypher, "cypher must not be null");
+        AsyncSession session = driver.session(AsyncSession.class, readConfig(fetchSize));
+        return closeAfter(session, session.executeReadAsync(tx -> tx.runAsync(cypher, toParams(params))
+                        .thenCompose(cursor -> cursor.listAsync(mapper::map)),
+                TransactionConfig.builder().withTimeout(timeout).build()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #stream(String, Map, RowMapper, Consumer)}; {@code consumer}
+     * is called on a driver I/O thread and must not block.
+     */
+    public <T> CompletableFuture<Long> streamAsync(String cypher, Map<String, Object> params, RowMapper<T> mapper,
+                                                   Consumer<? super T> consumer) {
+        Objects.requireNonNull(cypher, "cypher must not be null");
+        AsyncSession session = driver.session(AsyncSession.class, readConfig(fetchSize));
+        AtomicLong count = new AtomicLong();
+        return closeAfter(session, session.runAsync(cypher, toParams(params))
+                .thenCompose(cursor -> cursor.forEachAsync(record -> {
+                    consumer.accept(mapper.map(record));
+                    count.incrementAndGet();
+                }))
+                .thenApply(summary -> count.get()));
+    }
+
+    /**
+     * Runs all statements of {@code work} in one managed read transaction. The driver retries the
+     * whole unit on transient errors, so {@code work} must not have side effects outside Neo4j.
+     */
+    public <T> T readTransaction(Function<Statements, T> work) {
+        try (Session session = driver.session()) {
+            return session.executeRead(tx -> work.apply(statements(tx)));
+        }
+    }
+
+    /**
+     * Runs all statements of {@code work} in one managed write transaction that commits or rolls
+     * back as a whole; retried like {@link #readTransaction(Function)}.
+     */
+    public <T> T writeTransaction(Function<Statements, T> work) {
+        try (Session session = driver.session()) {
+            return session.executeWrite(tx -> work.apply(statements(tx)));
+        }
+    }
+
+    /**
+     * Borrows one session for several statements that each commit in their own transaction, e.g.
+     * a sequence of batches or schema commands, instead of acquiring a session per statement.
+     */
+    public <T> T withSession(Function<SessionStatements, T> work) {
+        try (Session session = driver.session()) {
+            return work.apply(new SessionStatements(session));
+        }
+    }
+
+    private SessionConfig readConfig(long fetchSize) {
+        return SessionConfig.builder()
+                .withDefaultAccessMode(AccessMode.READ)
+                .withFetchSize(fetchSize)
+                .build();
+    }
+
+    private <T> CompletableFuture<T> closeAfter(AsyncSession session, CompletionStage<T> work) {
+        return work.handle((value, error) -> session.closeAsync()
+                        .thenCompose(closed -> error != null
+                                ? CompletableFuture.<T>failedFuture(error)
+                                : CompletableFuture.completedFuture(value)))
+                .thenCompose(Function.identity())
+                .toCompletableFuture();
+    }
+
+    private Statements statements(TransactionContext tx) {
+        return (cypher, params) -> {
+            Objects.requireNonNull(cypher, "cypher must not be null");
+            return tx.run(cypher, toParams(params)).list(Record::asMap);
+        };
+    }
+
+    private static Map<String, Object> toParams(Map<String, Object> params) {
+        return params == null ? Map.of() : params;
+    }
+
+    /**
+     * Statements of one transaction.
+     */
+    @FunctionalInterface
+    public interface Statements {
+
+        List<Map<String, Object>> run(String cypher, Map<String, Object> params);
+    }
+
+    /**
+     * Statements on one session, each in its own managed transaction.
+     */
+    public static final class SessionStatements {
+
+        private final Session session;
+
+        private SessionStatements(Session session) {
+            this.session = session;
+        }
+
+        public List<Map<String, Object>> executeRead(String cypher, Map<String, Object> params) {
+            return run(cypher, params, TransactionMode.READ);
+        }
+
+        public List<Map<String, Object>> executeWrite(String cypher, Map<String, Object> params) {
+            return run(cypher, params, TransactionMode.WRITE);
+        }
+
+        private List<Map<String, Object>> run(String cypher, Map<String, Object> params, TransactionMode mode) {
+            Objects.requireNonNull(cypher, "cypher must not be null");
+            TransactionCallback<List<Map<String, Object>>> work =
+                    tx -> tx.run(cypher, toParams(params)).list(Record::asMap);
+            return switch (mode) {
+                case READ -> session.executeRead(work);
+                case WRITE -> session.executeWrite(work);
+            };
+        }
+    }
+
+    private enum TransactionMode {
+        READ, WRITE
+    }
+}
@@ -0,0 +1,33 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+@Configuration
+public class Neo4jConfig {
+
+    @Bean
+    public Driver neo4jDriver(
+            @Value("${neo4j.uri}") String uri,
+            @Value("${neo4j.user}") String user,
+            @Value("${neo4j.password}") String password,
+            @Value("${neo4j.pool.max-connections:100}") int maxConnections,
+            @Value("${neo4j.pool.acquisition-timeout:60s}") Duration acquisitionTimeout,
+            @Value("${neo4j.fetch-size:1000}") long fetchSize) {
+        Config config = Config.builder()
+                .withMaxConnectionPoolSize(maxConnections)
+                .withConnectionAcquisitionTimeout(acquisitionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .withFetchSize(fetchSize)
+                .build();
+        return GraphDatabase.driver(uri, AuthTokens.basic(user, password), config);
+    }
+}
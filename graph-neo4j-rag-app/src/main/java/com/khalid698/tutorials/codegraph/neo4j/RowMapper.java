@@ -0,0 +1,13 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import org.neo4j.driver.Record;
+
+/**
+ * Maps one result record to a value, reading the columns it needs straight from the driver's
+ * {@link Record} instead of going through an intermediate {@code Map} per row.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(Record record);
+}
@@ -0,0 +1,146 @@
+package com.khalid698.tutorials.codegraph.neo4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SchemaInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaInitializer.class);
+
+    private static final String DELETE_MIRROR_BATCH = """
+            MATCH (n:ChunkEmbeddingStore)
+            WITH n LIMIT $batchSize
+            DETACH DELETE n
+            RETURN count(*) AS deleted
+            """;
+    private static final int MIRROR_DELETE_BATCH_SIZE = 10_000;
+
+    private final Neo4jClient neo4jClient;
+    private final int vectorDimensions;
+    private final boolean storeMirror;
+    private final boolean hybridSearch;
+
+    public SchemaInitializer(Neo4jClient neo4jClient,
+                             @Value("${app.vector-dimensions}") int vectorDimensions,
+                             @Value("${app.embedding.store-mirror:false}") boolean storeMirror,
+                             @Value("${app.query.search.hybrid.enabled:false}") boolean hybridSearch) {
+        this.neo4jClient = neo4jClient;
+        this.vectorDimensions = vectorDimensions;
+        this.storeMirror = storeMirror;
+        this.hybridSearch = hybridSearch;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSchema() {
+        // one session for all schema commands; each still commits on its own so one failure does not roll back the rest
+        neo4jClient.withSession(session -> {
+            createConstraints(session);
+            createIndexes(session);
+            createVectorIndex(session);
+            if (hybridSearch) {
+                createFullTextIndex(session);
+            }
+            if (!storeMirror) {
+                dropEmbeddingStoreMirror(session);
+            }
+            return null;
+        });
+    }
+
+    private void createConstraints(Neo4jClient.SessionStatements session) {
+        List<String> constraints = List.of(
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (m:Module) REQUIRE m.name IS UNIQUE",
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (t:Type) REQUIRE (t.module, t.fqcn) IS UNIQUE",
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (m:Method) REQUIRE (m.module, m.fqcn, m.signature) IS UNIQUE",
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (e:Endpoint) REQUIRE (e.module, e.httpMethod, e.path) IS UNIQUE",
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (c:Chunk) REQUIRE c.id IS UNIQUE",
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (f:SourceFile) REQUIRE (f.module, f.path) IS UNIQUE",
+                "CREATE CONSTRAINT IF NOT EXISTS FOR (q:QueryEmbedding) REQUIRE q.key IS UNIQUE"
+        );
+
+        constraints.forEach(cypher -> {
+            session.executeWrite(cypher, Map.of());
+            log.info("Ensured constraint: {}", cypher);
+        });
+    }
+
+    private void createIndexes(Neo4jClient.SessionStatements session) {
+        List<String> indexes = List.of(
+                "CREATE INDEX IF NOT EXISTS FOR (t:Type) ON (t.module)",
+                "CREATE INDEX IF NOT EXISTS FOR (t:Type) ON (t.fqcn)",
+                "CREATE INDEX IF NOT EXISTS FOR (m:Method) ON (m.module)",
+                "CREATE INDEX IF NOT EXISTS FOR (c:Chunk) ON (c.module)",
+                "CREATE INDEX IF NOT EXISTS FOR (c:Chunk) ON (c.ownerFqcn)",
+                "CREATE INDEX IF NOT EXISTS FOR (q:QueryEmbedding) ON (q.createdAt)"
+        );
+
+        indexes.forEach(cypher -> {
+            session.executeWrite(cypher, Map.of());
+            log.info("Ensured index: {}", cypher);
+        });
+    }
+
+    private void createVectorIndex(Neo4jClient.SessionStatements session) {
+        String cypher = """
+                CREATE VECTOR INDEX chunk_embedding_idx IF NOT EXISTS
+                FOR (c:Chunk) ON (c.embedding)
+                OPTIONS {
+                  indexConfig: {
+                    `vector.dimensions`: $dims,
+                    `vector.similarity_function`: 'cosine'
+                  }
+                }
+                """;
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("dims", vectorDimensions);
+
+        session.executeWrite(cypher, params);
+        log.info("Ensured vector index chunk_embedding_idx with dimensions {}", vectorDimensions);
+    }
+
+    /**
+     * Full-text index of the hybrid search; only created when it is enabled, since every chunk
+     * write also updates it. The standard analyzer keeps a dotted fqcn as one token, so types are
+     * found by a simple class name through {@code n.name}.
+     */
+    private void createFullTextIndex(Neo4jClient.SessionStatements session) {
+        String cypher = """
+                CREATE FULLTEXT INDEX code_text_idx IF NOT EXISTS
+                FOR (n:Chunk|Method|Type) ON EACH [n.text, n.name, n.fqcn]
+                """;
+
+        session.executeWrite(cypher, Map.of());
+        log.info("Ensured full-text index code_text_idx");
+    }
+
+    /**
+     * Removes the {@code :ChunkEmbeddingStore} copies and their index left by earlier versions that
+     * always mirrored chunk vectors there. Nodes are deleted in bounded batches to keep each
+     * transaction small.
+     */
+    private void dropEmbeddingStoreMirror(Neo4jClient.SessionStatements session) {
+        session.executeWrite("DROP INDEX chunk_embedding_store_idx IF EXISTS", Map.of());
+        long deleted = 0;
+        while (true) {
+            List<Map<String, Object>> rows = session.executeWrite(DELETE_MIRROR_BATCH, Map.of("batchSize", MIRROR_DELETE_BATCH_SIZE));
+            long batch = rows.isEmpty() ? 0 : ((Number) rows.get(0).get("deleted")).longValue();
+            deleted += batch;
+            if (batch < MIRROR_DELETE_BATCH_SIZE) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Removed {} mirrored :ChunkEmbeddingStore nodes and index chunk_embedding_store_idx", deleted);
+        }
+    }
+}
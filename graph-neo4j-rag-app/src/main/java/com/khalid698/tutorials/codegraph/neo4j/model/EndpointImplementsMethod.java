@@ -0,0 +1,11 @@
+package com.khalid698.tutorials.codegraph.neo4j.model;
+
+public record EndpointImplementsMethod(
+        String endpointModule,
+        String httpMethod,
+        String path,
+        String methodModule,
+        String methodFqcn,
+        String signature
+) {
+}
@@ -0,0 +1,7 @@
+package com.khalid698.tutorials.codegraph.neo4j.model;
+
+public record ModuleNode(
+        String name,
+        String path
+) {
+}
@@ -0,0 +1,8 @@
+package com.khalid698.tutorials.codegraph.neo4j.model;
+
+public record SourceFileNode(
+        String module,
+        String path,
+        String hash
+) {
+}
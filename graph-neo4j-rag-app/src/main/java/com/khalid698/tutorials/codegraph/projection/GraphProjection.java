@@ -0,0 +1,307 @@
+package com.khalid698.tutorials.codegraph.projection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.khalid698.tutorials.codegraph.ai.GraphTraversal.Direction;
+
+/**
+ * Immutable in-memory projection of the Type, Method and Endpoint adjacency of one module in
+ * compressed sparse row form: nodes are dense ints, and the outgoing and incoming neighbours of
+ * node {@code i} are {@code targets[offsets[i]..offsets[i + 1])} with their relationship type in
+ * the parallel byte array. Traversals are plain array walks without allocation per edge. Each node
+ * keeps its Neo4j element id, so results can be loaded from the database by id.
+ */
+public final class GraphProjection {
+
+    public enum RelationshipType {
+        DEPENDS_ON, DECLARES, EXPOSES_ENDPOINT, IMPLEMENTS;
+
+        int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    private static final String[] LABELS = {"Type", "Method", "Endpoint"};
+
+    private final String module;
+    private final long version;
+    private final byte[] labels;
+    private final String[] ids;
+    private final String[] modules;
+    private final String[] keys;
+    private final Map<String, Integer> index;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final byte[] outTypes;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final byte[] inTypes;
+
+    private GraphProjection(Builder builder) {
+        int nodes = builder.nodeCount;
+        int relationships = builder.relationshipCount;
+        this.module = builder.module;
+        this.version = builder.version;
+        this.labels = Arrays.copyOf(builder.labels, nodes);
+        this.ids = Arrays.copyOf(builder.ids, nodes);
+        this.modules = Arrays.copyOf(builder.modules, nodes);
+        this.keys = Arrays.copyOf(builder.keys, nodes);
+        this.index = Map.copyOf(builder.index);
+        this.outOffsets = new int[nodes + 1];
+        this.outTargets = new int[relationships];
+        this.outTypes = new byte[relationships];
+        this.inOffsets = new int[nodes + 1];
+        this.inSources = new int[relationships];
+        this.inTypes = new byte[relationships];
+        fill(outOffsets, outTargets, outTypes, builder.sources, builder.targets, builder.types, relationships);
+        fill(inOffsets, inSources, inTypes, builder.targets, builder.sources, builder.types, relationships);
+    }
+
+    // counting sort of the edge list by {@code from}
+    private static void fill(int[] offsets, int[] neighbours, byte[] types,
+                             int[] from, int[] to, byte[] edgeTypes, int count) {
+        for (int i = 0; i < count; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < count; i++) {
+            int slot = next[from[i]]++;
+            neighbours[slot] = to[i];
+            types[slot] = edgeTypes[i];
+        }
+    }
+
+    public static Builder builder(String module, long version) {
+        return new Builder(module, version);
+    }
+
+    public static int mask(Set<RelationshipType> types) {
+        if (types == null || types.isEmpty()) {
+            return -1;
+        }
+        int mask = 0;
+        for (RelationshipType type : types) {
+            mask |= type.bit();
+        }
+        return mask;
+    }
+
+    public String module() {
+        return module;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int nodeCount() {
+        return keys.length;
+    }
+
+    public int relationshipCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Returns the id of the node, or -1. Nodes of the projected module take precedence over leaf
+     * nodes of other modules with the same key.
+     */
+    public int find(String label, String key) {
+        Integer id = index.get(label + '|' + key);
+        return id == null ? -1 : id;
+    }
+
+    public ProjectedNode node(int id) {
+        return new ProjectedNode(ids[id], LABELS[labels[id]], modules[id], keys[id]);
+    }
+
+    public List<ProjectedNode> nodes(int[] ids) {
+        List<ProjectedNode> nodes = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            nodes.add(node(id));
+        }
+        return nodes;
+    }
+
+    /**
+     * Unweighted shortest path from {@code from} to {@code to} following relationships of
+     * {@code typeMask}, as node ids including both ends; empty when there is none within
+     * {@code maxDepth} hops.
+     */
+    public int[] shortestPath(int from, int to, int typeMask, Direction direction, int maxDepth) {
+        if (from == to) {
+            return new int[]{from};
+        }
+        int[] parent = new int[keys.length];
+        Arrays.fill(parent, -1);
+        parent[from] = from;
+        int[] queue = new int[keys.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        for (int depth = 0; depth < maxDepth && head < tail; depth++) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int node = queue[head++];
+                tail = visit(node, typeMask, direction, parent, queue, tail);
+                if (parent[to] != -1) {
+                    return path(parent, from, to);
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    public String elementId(int id) {
+        return ids[id];
+    }
+
+    /**
+     * Nodes reachable from {@code from} within {@code hops} hops in breadth-first order, excluding
+     * {@code from} itself.
+     */
+    public int[] neighbourhood(int from, int hops, int typeMask, Direction direction) {
+        return neighbourhood(new int[]{from}, hops, typeMask, direction);
+    }
+
+    /**
+     * Nodes reachable from any of {@code from} within {@code hops} hops in breadth-first order,
+     * excluding the start nodes.
+     */
+    public int[] neighbourhood(int[] from, int hops, int typeMask, Direction direction) {
+        int[] parent = new int[keys.length];
+        Arrays.fill(parent, -1);
+        int[] queue = new int[keys.length];
+        int tail = 0;
+        for (int node : from) {
+            if (parent[node] == -1) {
+                parent[node] = node;
+                queue[tail++] = node;
+            }
+        }
+        int seeds = tail;
+        int head = 0;
+        for (int depth = 0; depth < hops && head < tail; depth++) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                tail = visit(queue[head++], typeMask, direction, parent, queue, tail);
+            }
+        }
+        return Arrays.copyOfRange(queue, seeds, tail);
+    }
+
+    private int visit(int node, int typeMask, Direction direction, int[] parent, int[] queue, int tail) {
+        if (direction != Direction.INCOMING) {
+            tail = visit(node, outOffsets, outTargets, outTypes, typeMask, parent, queue, tail);
+        }
+        if (direction != Direction.OUTGOING) {
+            tail = visit(node, inOffsets, inSources, inTypes, typeMask, parent, queue, tail);
+        }
+        return tail;
+    }
+
+    private static int visit(int node, int[] offsets, int[] neighbours, byte[] types, int typeMask,
+                             int[] parent, int[] queue, int tail) {
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            int next = neighbours[i];
+            if (parent[next] == -1 && (typeMask & (1 << types[i])) != 0) {
+                parent[next] = node;
+                queue[tail++] = next;
+            }
+        }
+        return tail;
+    }
+
+    private static int[] path(int[] parent, int from, int to) {
+        int length = 1;
+        for (int node = to; node != from; node = parent[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = to, i = length - 1; i >= 0; node = parent[node], i--) {
+            path[i] = node;
+        }
+        return path;
+    }
+
+    /**
+     * Collects nodes and relationships into growable primitive arrays; not thread-safe.
+     */
+    public static final class Builder {
+
+        private final String module;
+        private final long version;
+        private final Map<String, Integer> index = new HashMap<>();
+        private final Map<String, String> moduleNames = new HashMap<>();
+        private byte[] labels = new byte[1024];
+        private String[] ids = new String[1024];
+        private String[] modules = new String[1024];
+        private String[] keys = new String[1024];
+        private int nodeCount;
+        private int[] sources = new int[4096];
+        private int[] targets = new int[4096];
+        private byte[] types = new byte[4096];
+        private int relationshipCount;
+
+        private Builder(String module, long version) {
+            this.module = module;
+            this.version = version;
+        }
+
+        /**
+         * Adds the node unless a node with the same label and key exists; returns its id, or -1 for
+         * labels outside the projection.
+         */
+        public int addNode(String label, String elementId, String nodeModule, String key) {
+            int labelIndex = Arrays.asList(LABELS).indexOf(label);
+            if (labelIndex < 0 || key == null) {
+                return -1;
+            }
+            Integer existing = index.get(label + '|' + key);
+            if (existing != null) {
+                return existing;
+            }
+            if (nodeCount == keys.length) {
+                int capacity = nodeCount * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                modules = Arrays.copyOf(modules, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            labels[nodeCount] = (byte) labelIndex;
+            ids[nodeCount] = elementId;
+            modules[nodeCount] = nodeModule == null ? null : moduleNames.computeIfAbsent(nodeModule, name -> name);
+            keys[nodeCount] = key;
+            index.put(label + '|' + key, nodeCount);
+            return nodeCount++;
+        }
+
+        public void addRelationship(RelationshipType type, int source, int target) {
+            if (source < 0 || target < 0) {
+                return;
+            }
+            if (relationshipCount == sources.length) {
+                int capacity = relationshipCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+            sources[relationshipCount] = source;
+            targets[relationshipCount] = target;
+            types[relationshipCount] = (byte) type.ordinal();
+            relationshipCount++;
+        }
+
+        public GraphProjection build() {
+            return new GraphProjection(this);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.khalid698.tutorials.codegraph.projection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.neo4j.driver.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.khalid698.tutorials.codegraph.neo4j.CypherTemplates;
+import com.khalid698.tutorials.codegraph.neo4j.Neo4jClient;
+
+/**
+ * Holds one {@link GraphProjection} per module when {@code app.graph.projection.enabled} is set.
+ * Projections are built at startup and rebuilt for a module after each of its ingests; a rebuild
+ * is skipped while the module's ingest version is unchanged. Readers always see a complete
+ * projection, since a rebuilt one replaces the old one in a single map update.
+ * <p>
+ * A projection is only handed out at the module's current ingest version, checked on every
+ * {@link #getAsync(String)}, so instances that did not run the ingest never serve a stale one:
+ * while it is rebuilt in the background callers get nothing and fall back to Neo4j.
+ */
+@Component
+public class GraphProjections {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphProjections.class);
+
+    private static final String MODULE_INGEST_VERSIONS = "cypher/moduleIngestVersions.cypher";
+    private static final String NODES_TEMPLATE = "cypher/projectionNodes.cypher";
+    private static final String RELATIONSHIPS_TEMPLATE = "cypher/projectionRelationships.cypher";
+
+    private final Neo4jClient neo4jClient;
+    private final CypherTemplates templates;
+    private final ExecutorService rebuildExecutor;
+    private final boolean enabled;
+    private final Map<String, GraphProjection> projections = new ConcurrentHashMap<>();
+    private final Set<String> rebuilding = ConcurrentHashMap.newKeySet();
+
+    public GraphProjections(Neo4jClient neo4jClient,
+                            CypherTemplates templates,
+                            @Qualifier("ingestPipelineExecutor") ExecutorService rebuildExecutor,
+                            @Value("${app.graph.projection.enabled:false}") boolean enabled) {
+        this.neo4jClient = neo4jClient;
+        this.templates = templates;
+        this.rebuildExecutor = rebuildExecutor;
+        this.enabled = enabled;
+        templates.require(MODULE_INGEST_VERSIONS, NODES_TEMPLATE, RELATIONSHIPS_TEMPLATE);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The projection of {@code module} if it matches the module's current ingest version; a
+     * missing or outdated projection is rebuilt in the background and reported as absent.
+     */
+    public CompletableFuture<Optional<GraphProjection>> getAsync(String module) {
+        if (!enabled || module == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return neo4jClient.queryAsync(templates.load(MODULE_INGEST_VERSIONS), Map.of("module", module),
+                        record -> record.get("version").asLong())
+                .thenApply(versions -> {
+                    if (versions.isEmpty()) {
+                        return Optional.<GraphProjection>empty();
+                    }
+                    GraphProjection current = projections.get(module);
+                    if (current != null && current.version() == versions.get(0)) {
+                        return Optional.of(current);
+                    }
+                    rebuildInBackground(module);
+                    return Optional.<GraphProjection>empty();
+                });
+    }
+
+    private void rebuildInBackground(String module) {
+        if (!rebuilding.add(module)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    refresh(module);
+                } finally {
+                    rebuilding.remove(module);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.remove(module);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("module", null);
+        neo4jClient.query(templates.load(MODULE_INGEST_VERSIONS), params, record -> record.get("name").asString())
+                .forEach(this::refresh);
+    }
+
+    /**
+     * Rebuilds the projection of {@code module} if its ingest version moved. Failures are logged
+     * and leave the previous projection in place.
+     */
+    public void refresh(String module) {
+        if (!enabled || module == null) {
+            return;
+        }
+        try {
+            long version = ingestVersion(module);
+            GraphProjection current = projections.get(module);
+            if (current != null && current.version() == version) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            GraphProjection projection = build(module, version);
+            // a slower rebuild of an older version never replaces a newer one
+            projections.merge(module, projection, (old, fresh) -> fresh.version() >= old.version() ? fresh : old);
+            log.info("Projected module {} at ingest version {}: {} nodes, {} relationships in {} ms",
+                    module, version, projection.nodeCount(), projection.relationshipCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.info("Unable to project module {}: {}", module, e.getMessage());
+        }
+    }
+
+    private long ingestVersion(String module) {
+        return neo4jClient.query(templates.load(MODULE_INGEST_VERSIONS), Map.of("module", module),
+                        record -> record.get("version").asLong())
+                .stream()
+                .findFirst()
+                .orElse(0L);
+    }
+
+    private GraphProjection build(String module, long version) {
+        GraphProjection.Builder builder = GraphProjection.builder(module, version);
+        Map<String, Object> params = Map.of("module", module);
+        neo4jClient.stream(templates.load(NODES_TEMPLATE), params, record -> record,
+                record -> builder.addNode(text(record, "label"), text(record, "id"), text(record, "module"), text(record, "key")));
+        neo4jClient.stream(templates.load(RELATIONSHIPS_TEMPLATE), params, record -> record, record -> {
+            int source = builder.addNode(text(record, "sourceLabel"), text(record, "sourceId"), text(record, "sourceModule"), text(record, "sourceKey"));
+            int target = builder.addNode(text(record, "targetLabel"), text(record, "targetId"), text(record, "targetModule"), text(record, "targetKey"));
+            builder.addRelationship(GraphProjection.RelationshipType.valueOf(text(record, "type")), source, target);
+        });
+        return builder.build();
+    }
+
+    private static String text(Record record, String key) {
+        return record.get(key).isNull() ? null : record.get(key).asString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.khalid698.tutorials.codegraph.projection;
+
+/**
+ * A projected node with its Neo4j element id, addressed by its domain key: the fqcn of a Type, {@code fqcn#signature} of a
+ * Method, or {@code METHOD path} of an Endpoint.
+ */
+public record ProjectedNode(
+        String id,
+        String label,
+        String module,
+        String key
+) {
+}
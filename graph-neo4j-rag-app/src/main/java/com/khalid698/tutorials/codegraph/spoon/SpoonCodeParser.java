@@ -1,16 +1,28 @@
 package com.khalid698.tutorials.codegraph.spoon;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Optional;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,13 +30,16 @@ import org.springframework.util.StringUtils;
 
 import com.khalid698.tutorials.codegraph.domain.EndpointDef;
 import com.khalid698.tutorials.codegraph.domain.MethodDef;
+import com.khalid698.tutorials.codegraph.domain.ParsedBatch;
 import com.khalid698.tutorials.codegraph.domain.ParsedModule;
 import com.khalid698.tutorials.codegraph.domain.TypeDef;
 import com.khalid698.tutorials.codegraph.domain.TypeDependency;
 
 import spoon.Launcher;
+import spoon.experimental.CtUnresolvedImport;
 import spoon.reflect.CtModel;
 import spoon.reflect.code.CtExpression;
+import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.CtAnnotation;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtConstructor;
@@ -45,6 +60,9 @@ public class SpoonCodeParser {
     private static final Logger log = LoggerFactory.getLogger(SpoonCodeParser.class);
 
     private static final String DEFAULT_SOURCE_ROOT = "src/main/java";
+    private static final int MAX_SUBMODULE_DEPTH = 4;
+    private static final List<String> BUILD_FILES = List.of("pom.xml", "build.gradle", "build.gradle.kts");
+    private static final Set<String> IGNORED_DIRECTORIES = Set.of("target", "build", "node_modules", ".git", ".gradle", ".idea");
 
     private final Path repoPath;
     private final String moduleName;
@@ -61,9 +79,180 @@ public class SpoonCodeParser {
     }
 
     public ParsedModule parse() {
+        return parse(1);
+    }
+
+    /**
+     * Parses the source root, splitting it into independent partitions that are parsed by separate
+     * Spoon launchers on a pool of {@code parallelism} threads when more than one thread is allowed.
+     * Partitions are the module's package subtrees or, when the source root does not exist at the
+     * repository root, the Maven/Gradle submodules that contain it.
+     */
+    public ParsedModule parse(int parallelism) {
         Path sources = repoPath.resolve(sourceRoot).normalize();
+        if (parallelism <= 1) {
+            return parse(List.of(sources));
+        }
+        return parseParallel(Files.isDirectory(sources) ? sourcePartitions(sources) : submoduleSourceRoots(), parallelism);
+    }
+
+    /**
+     * Parses only the given source files, resolved against the repository root. Used by incremental
+     * ingestion, where references into files outside the set stay unresolved (no-classpath mode).
+     */
+    public ParsedModule parseFiles(Collection<String> relativePaths) {
+        return parseFiles(relativePaths, 1);
+    }
+
+    public ParsedModule parseFiles(Collection<String> relativePaths, int parallelism) {
+        List<Path> files = relativePaths.stream()
+                .map(p -> repoPath.resolve(p).normalize())
+                .toList();
+        if (parallelism <= 1 || files.size() < 2 * parallelism) {
+            return parse(files);
+        }
+        // keep files of one directory (package) together so same-package references still resolve
+        Map<Path, List<Path>> byDirectory = files.stream()
+                .collect(Collectors.groupingBy(Path::getParent, LinkedHashMap::new, Collectors.toList()));
+        return parseParallel(new ArrayList<>(byDirectory.values()), parallelism);
+    }
+
+    /**
+     * Parses the given source files in batches of about {@code batchFiles} files, handing each
+     * batch's records to {@code consumer} before the next batch is built. Only one Spoon model is
+     * alive at a time, so peak heap follows the batch size instead of the module size. Files of one
+     * directory are kept in the same batch where possible so same-package references still resolve;
+     * references into other batches stay unresolved as in {@link #parseFiles(Collection)}.
+     */
+    public void parseFilesInBatches(Collection<String> relativePaths, int batchFiles, Consumer<ParsedBatch> consumer) {
+        int limit = Math.max(1, batchFiles);
+        Map<String, List<String>> byDirectory = relativePaths.stream()
+                .sorted()
+                .collect(Collectors.groupingBy(p -> Objects.toString(Paths.get(p).getParent(), ""),
+                        LinkedHashMap::new, Collectors.toList()));
+        List<String> batch = new ArrayList<>();
+        int index = 0;
+        for (List<String> directory : byDirectory.values()) {
+            if (!batch.isEmpty() && batch.size() + directory.size() > limit) {
+                consumer.accept(parseBatch(index++, batch));
+                batch = new ArrayList<>();
+            }
+            for (String path : directory) {
+                batch.add(path);
+                if (batch.size() >= limit) {
+                    consumer.accept(parseBatch(index++, batch));
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(parseBatch(index, batch));
+        }
+    }
+
+    private ParsedBatch parseBatch(int index, List<String> relativePaths) {
+        List<Path> files = relativePaths.stream()
+                .map(p -> repoPath.resolve(p).normalize())
+                .toList();
+        return new ParsedBatch(index, List.copyOf(relativePaths), parse(files));
+    }
+
+    private ParsedModule parseParallel(List<List<Path>> partitions, int parallelism) {
+        if (partitions.size() <= 1) {
+            return parse(partitions.isEmpty() ? List.of() : partitions.get(0));
+        }
+        log.info("Parsing module {} as {} partitions on {} threads", moduleName, partitions.size(), parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ParsedModule> parts = new ArrayList<>();
+            for (Future<ParsedModule> future : pool.invokeAll(partitions.stream()
+                    .map(inputs -> (Callable<ParsedModule>) () -> parse(inputs))
+                    .toList())) {
+                parts.add(future.get());
+            }
+            return merge(parts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Parsing of module " + moduleName + " was interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ParsedModule merge(List<ParsedModule> parts) {
+        List<TypeDef> typeDefs = new ArrayList<>();
+        List<MethodDef> methodDefs = new ArrayList<>();
+        List<EndpointDef> endpointDefs = new ArrayList<>();
+        Set<TypeDependency> dependencies = new LinkedHashSet<>();
+        for (ParsedModule part : parts) {
+            typeDefs.addAll(part.types());
+            methodDefs.addAll(part.methods());
+            endpointDefs.addAll(part.endpoints());
+            dependencies.addAll(part.dependencies());
+        }
+        log.info("Merged {} partitions of module {}: {} types, {} methods, {} endpoints, {} dependencies",
+                parts.size(), moduleName, typeDefs.size(), methodDefs.size(), endpointDefs.size(), dependencies.size());
+        return new ParsedModule(moduleName, repoPath.toString(), sourceRoot.toString(),
+                typeDefs, methodDefs, endpointDefs, new ArrayList<>(dependencies));
+    }
+
+    /**
+     * Splits a source root below its common package prefix: every package directory at the first
+     * level that branches becomes one partition, and loose files at that level form another.
+     */
+    private List<List<Path>> sourcePartitions(Path sources) {
+        Path dir = sources;
+        List<Path> children = listDirectory(dir);
+        while (children.size() == 1 && Files.isDirectory(children.get(0))) {
+            dir = children.get(0);
+            children = listDirectory(dir);
+        }
+        List<List<Path>> partitions = new ArrayList<>();
+        List<Path> looseFiles = new ArrayList<>();
+        for (Path child : children) {
+            if (Files.isDirectory(child)) {
+                partitions.add(List.of(child));
+            } else if (child.getFileName().toString().endsWith(".java")) {
+                looseFiles.add(child);
+            }
+        }
+        if (!looseFiles.isEmpty()) {
+            partitions.add(looseFiles);
+        }
+        return partitions;
+    }
+
+    private List<List<Path>> submoduleSourceRoots() {
+        try (Stream<Path> dirs = Files.walk(repoPath, MAX_SUBMODULE_DEPTH)) {
+            return dirs.filter(Files::isDirectory)
+                    .filter(dir -> dir.getFileName() == null || !IGNORED_DIRECTORIES.contains(dir.getFileName().toString()))
+                    .filter(dir -> BUILD_FILES.stream().anyMatch(build -> Files.isRegularFile(dir.resolve(build))))
+                    .map(dir -> dir.resolve(sourceRoot).normalize())
+                    .filter(Files::isDirectory)
+                    .map(List::of)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to scan submodules of " + repoPath, e);
+        }
+    }
+
+    private List<Path> listDirectory(Path dir) {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list " + dir, e);
+        }
+    }
+
+    private ParsedModule parse(List<Path> inputs) {
+        if (inputs.isEmpty()) {
+            return new ParsedModule(moduleName, repoPath.toString(), sourceRoot.toString(),
+                    List.of(), List.of(), List.of(), List.of());
+        }
         Launcher launcher = new Launcher();
-        launcher.addInputResource(sources.toString());
+        inputs.forEach(input -> launcher.addInputResource(input.toString()));
         launcher.getEnvironment().setNoClasspath(true);
         launcher.getEnvironment().setComplianceLevel(21);
 
@@ -133,7 +322,8 @@ public class SpoonCodeParser {
                     method.getModifiers().contains(ModifierKind.ABSTRACT),
                     pos.path(),
                     pos.startLine(),
-                    pos.endLine()
+                    pos.endLine(),
+                    sourceText(method.getPosition())
             ));
         }
         // include constructors (only for classes/enums that support it)
@@ -151,7 +341,8 @@ public class SpoonCodeParser {
                         false,
                         pos.path(),
                         pos.startLine(),
-                        pos.endLine()
+                        pos.endLine(),
+                        sourceText(ctor.getPosition())
                 ));
             }
         }
@@ -206,11 +397,11 @@ public class SpoonCodeParser {
         Optional.ofNullable(type.getPosition())
                 .flatMap(pos -> Optional.ofNullable(pos.getCompilationUnit()))
                 .map(unit -> unit.getImports().stream()
-                        .map(CtImport::getReference)
+                        .map(this::importedName)
                         .filter(Objects::nonNull)
                         .toList())
-                .ifPresent(imports -> imports.forEach(ref ->
-                        addDependency(dependencies, sourceFqcn, safeQualifiedName(ref), "type-usage", "import")));
+                .ifPresent(imports -> imports.forEach(name ->
+                        addDependency(dependencies, sourceFqcn, name, "type-usage", "import")));
 
         // fields
         type.getFields().forEach(field -> addDependency(
@@ -237,6 +428,18 @@ public class SpoonCodeParser {
         addAnnotationDeps(dependencies, sourceFqcn, type.getAnnotations());
     }
 
+    /**
+     * Imports of types outside the parsed inputs (another partition, or an unchanged file during an
+     * incremental parse) stay unresolved in no-classpath mode; their written name is still the FQCN.
+     */
+    private String importedName(CtImport ctImport) {
+        if (ctImport instanceof CtUnresolvedImport unresolved) {
+            String name = unresolved.getUnresolvedReference();
+            return unresolved.isStatic() || name == null || name.endsWith("*") ? null : name;
+        }
+        return ctImport.getReference() == null ? null : safeQualifiedName(ctImport.getReference());
+    }
+
     private void addAnnotationDeps(Set<TypeDependency> dependencies, String sourceFqcn, List<CtAnnotation<?>> annotations) {
         annotations.stream()
                 .filter(Objects::nonNull)
@@ -381,6 +584,24 @@ public class SpoonCodeParser {
         return combined.isEmpty() ? "/" : combined;
     }
 
+    /**
+     * Slices the element's declaration (javadoc, annotations, signature and body) out of the
+     * compilation unit's source, which Spoon keeps after parsing, so no file has to be re-read.
+     */
+    private String sourceText(SourcePosition pos) {
+        if (pos == null || !pos.isValidPosition() || pos.getCompilationUnit() == null) {
+            return null;
+        }
+        String source = pos.getCompilationUnit().getOriginalSourceCode();
+        int start = pos.getSourceStart();
+        int end = pos.getSourceEnd() + 1;
+        if (source == null || start < 0 || end > source.length() || start >= end) {
+            return null;
+        }
+        String text = source.substring(start, end);
+        return text.indexOf('\r') >= 0 ? text.replace("\r\n", "\n").replace('\r', '\n') : text;
+    }
+
     private String safeQualifiedName(Object ref) {
         try {
             if (ref instanceof CtTypeReference<?> typeRef) {
@@ -404,7 +625,7 @@ public class SpoonCodeParser {
     }
 */    
     private record Position(String path, Integer startLine, Integer endLine) {
-        static Position from(spoon.reflect.cu.SourcePosition pos, Path repoRoot) {
+        static Position from(SourcePosition pos, Path repoRoot) {
             if (pos == null || !pos.isValidPosition() || pos.getFile() == null) {
                 return new Position(null, null, null);
             }
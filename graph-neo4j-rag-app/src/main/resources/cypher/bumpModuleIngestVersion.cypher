@@ -0,0 +1,3 @@
+MATCH (m:Module {name: $module})
+SET m.ingestVersion = coalesce(m.ingestVersion, 0) + 1
+RETURN m.ingestVersion AS version
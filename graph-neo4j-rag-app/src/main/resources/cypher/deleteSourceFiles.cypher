@@ -0,0 +1,4 @@
+MATCH (f:SourceFile {module: $module})
+WHERE f.path IN $paths
+DETACH DELETE f
+RETURN count(*) AS deleted
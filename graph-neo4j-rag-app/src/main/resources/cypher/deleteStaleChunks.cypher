@@ -0,0 +1,4 @@
+MATCH (c:Chunk {module: $module})
+WHERE c.path IN $paths AND NOT c.id IN $keepChunkIds
+DETACH DELETE c
+RETURN count(*) AS deleted
@@ -0,0 +1,13 @@
+CALL {
+  MATCH (m:Method {module: $module})
+  WHERE m.path IN $paths AND NOT (m.fqcn + '|' + m.signature) IN $keepMethods
+  DETACH DELETE m
+  RETURN count(*) AS methods
+}
+CALL {
+  MATCH (t:Type {module: $module})
+  WHERE t.path IN $paths AND NOT t.fqcn IN $keepTypes
+  DETACH DELETE t
+  RETURN count(*) AS types
+}
+RETURN methods + types AS deleted
@@ -0,0 +1,14 @@
+CALL {
+  MATCH (t:Type {module: $module})-[:EXPOSES_ENDPOINT]->(e:Endpoint)
+  WHERE t.path IN $paths
+  WITH DISTINCT e
+  DETACH DELETE e
+  RETURN count(*) AS endpoints
+}
+CALL {
+  MATCH (t:Type {module: $module})-[d:DEPENDS_ON]->()
+  WHERE t.path IN $paths
+  DELETE d
+  RETURN count(*) AS dependencies
+}
+RETURN endpoints + dependencies AS deleted
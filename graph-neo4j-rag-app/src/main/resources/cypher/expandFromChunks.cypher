@@ -1,22 +1,22 @@
+// seeds of the answer context: the hit chunks, their methods and declaring types;
+// GraphTraversal follows DEPENDS_ON, EXPOSES_ENDPOINT and IMPLEMENTS from there
 UNWIND $chunkIds AS chunkId
-MATCH (c:Chunk {id: chunkId})-[:CHUNK_OF]->(m:Method)<-[:DECLARES]-(t:Type)
-WITH collect(DISTINCT c) AS chunks, collect(DISTINCT m) AS methods, collect(DISTINCT t) AS types
-
-UNWIND types AS t
-OPTIONAL MATCH (t)-[:DEPENDS_ON]->(dep:Type)
-WITH chunks, methods, collect(DISTINCT t) + collect(DISTINCT dep) AS typeNodes
-
-UNWIND typeNodes AS t
-OPTIONAL MATCH (t)-[:EXPOSES_ENDPOINT]->(e:Endpoint)
-WITH chunks, methods, collect(DISTINCT t) AS typeNodes, collect(DISTINCT e) AS endpoints
-
-OPTIONAL MATCH (e:Endpoint)-[:IMPLEMENTS]->(impl:Method)
-WITH chunks, methods + collect(DISTINCT impl) AS methodsAll, typeNodes, endpoints
-
-WITH chunks + methodsAll + typeNodes + endpoints AS nodes
-UNWIND nodes AS n
-OPTIONAL MATCH (n)-[r]->(n2)
-WHERE n2 IN nodes
-WITH collect(DISTINCT n) AS nodes, collect(DISTINCT r) AS rels
-RETURN [n IN nodes | {id: toString(id(n)), label: head(labels(n)), properties: properties(n)}] AS nodes,
-       [r IN rels | {id: toString(id(r)), type: type(r), sourceId: toString(id(startNode(r))), targetId: toString(id(endNode(r))), properties: properties(r)}] AS rels
+MATCH (c:Chunk {id: chunkId})
+// a chunk names its owner by key instead of through a relationship
+OPTIONAL MATCH (t:Type {module: c.module, fqcn: c.ownerFqcn})
+OPTIONAL MATCH (m:Method {module: c.module, fqcn: c.ownerFqcn, signature: c.ownerSignature})
+OPTIONAL MATCH (t)-[d:DECLARES]->(m)
+WITH collect(DISTINCT c) + collect(DISTINCT m) + collect(DISTINCT t) AS nodes,
+     collect(DISTINCT d) AS rels
+CALL {
+  WITH nodes
+  UNWIND nodes AS n
+  RETURN 'node' AS kind, elementId(n) AS id, head(labels(n)) AS label, null AS type,
+         null AS sourceId, null AS targetId, n {.*, embedding: null} AS properties
+  UNION ALL
+  WITH rels
+  UNWIND rels AS r
+  RETURN 'rel' AS kind, elementId(r) AS id, null AS label, type(r) AS type,
+         elementId(startNode(r)) AS sourceId, elementId(endNode(r)) AS targetId, properties(r) AS properties
+}
+RETURN kind, id, label, type, sourceId, targetId, properties
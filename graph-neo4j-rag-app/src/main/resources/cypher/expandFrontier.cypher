@@ -0,0 +1,19 @@
+UNWIND $frontier AS nodeId
+MATCH (n) WHERE elementId(n) = nodeId
+// per-node fan-out cap: $maxDegree is one more than a node may contribute per hop, so the
+// traversal can tell a capped node from one with exactly that many neighbours
+CALL {
+  WITH n
+  MATCH (n)-[r]-(m)
+  WHERE (size($types) = 0 OR type(r) IN $types)
+    AND ($direction = 'BOTH'
+         OR ($direction = 'OUTGOING' AND startNode(r) = n)
+         OR ($direction = 'INCOMING' AND endNode(r) = n))
+  RETURN r, m
+  LIMIT $maxDegree
+}
+RETURN nodeId AS fromId, elementId(r) AS relId, type(r) AS type,
+       elementId(startNode(r)) AS sourceId, elementId(endNode(r)) AS targetId, properties(r) AS relProperties,
+       elementId(m) AS id, head(labels(m)) AS label, m {.*, embedding: null} AS properties,
+       COUNT { (m)--() } AS degree
+LIMIT $rowLimit
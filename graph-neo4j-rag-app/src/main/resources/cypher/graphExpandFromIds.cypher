@@ -1,12 +1,20 @@
-UNWIND $ids AS nodeId
-MATCH (n) WHERE toString(id(n)) = nodeId
-WITH collect(DISTINCT n) AS seeds
-UNWIND seeds AS s
-OPTIONAL MATCH (s)-[r*1..$hops]-(t)
-WITH seeds + collect(DISTINCT t) AS nodes
-UNWIND nodes AS n
-OPTIONAL MATCH (n)-[rel]-(n2)
-WHERE n2 IN nodes
-WITH collect(DISTINCT n) AS nodes, collect(DISTINCT rel) AS rels
-RETURN [n IN nodes | {id: toString(id(n)), label: head(labels(n)), properties: properties(n)}] AS nodes,
-       [r IN rels | {id: toString(id(r)), type: type(r), sourceId: toString(id(startNode(r))), targetId: toString(id(endNode(r))), properties: properties(r)}] AS rels
+// every seed is resolved through an index seek: element id, or a key backed by a schema constraint
+CALL {
+  UNWIND $ids AS nodeId
+  MATCH (n) WHERE elementId(n) = nodeId
+  RETURN n
+  UNION
+  UNWIND $chunkIds AS chunkId
+  MATCH (n:Chunk {id: chunkId})
+  RETURN n
+  UNION
+  UNWIND $types AS key
+  MATCH (n:Type {module: key.module, fqcn: key.fqcn})
+  RETURN n
+  UNION
+  UNWIND $methods AS key
+  MATCH (n:Method {module: key.module, fqcn: key.fqcn, signature: key.signature})
+  RETURN n
+}
+RETURN 'node' AS kind, elementId(n) AS id, head(labels(n)) AS label, null AS type,
+       null AS sourceId, null AS targetId, n {.*, embedding: null} AS properties
@@ -0,0 +1,24 @@
+CALL db.index.fulltext.queryNodes('code_text_idx', $query, {limit: $candidates}) YIELD node, score
+WHERE $module IS NULL OR node.module = $module
+// method and type matches count for the chunks they own, found by the owner key on the chunk
+CALL {
+  WITH node
+  WITH node WHERE node:Chunk
+  RETURN node AS chunk
+  UNION
+  WITH node
+  WITH node WHERE node:Method
+  MATCH (chunk:Chunk {ownerFqcn: node.fqcn, ownerSignature: node.signature})
+  WHERE chunk.module = node.module
+  RETURN chunk
+  UNION
+  WITH node
+  WITH node WHERE node:Type
+  MATCH (chunk:Chunk {ownerFqcn: node.fqcn})
+  WHERE chunk.module = node.module
+  RETURN chunk
+}
+WITH chunk, max(score) AS score
+RETURN chunk {.*, embedding: null} AS properties, score
+ORDER BY score DESC
+LIMIT $topK
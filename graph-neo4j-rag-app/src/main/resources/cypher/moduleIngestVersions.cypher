@@ -0,0 +1,4 @@
+MATCH (m:Module)
+WHERE $module IS NULL OR m.name = $module
+RETURN m.name AS name, coalesce(m.ingestVersion, 0) AS version
+ORDER BY name
@@ -0,0 +1,11 @@
+CALL {
+  MATCH (t:Type {module: $module})
+  RETURN 'Type' AS label, elementId(t) AS id, t.module AS module, t.fqcn AS key
+  UNION ALL
+  MATCH (m:Method {module: $module})
+  RETURN 'Method' AS label, elementId(m) AS id, m.module AS module, m.fqcn + '#' + m.signature AS key
+  UNION ALL
+  MATCH (e:Endpoint {module: $module})
+  RETURN 'Endpoint' AS label, elementId(e) AS id, e.module AS module, e.httpMethod + ' ' + e.path AS key
+}
+RETURN label, id, module, key
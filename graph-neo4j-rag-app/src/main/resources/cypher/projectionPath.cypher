@@ -0,0 +1,24 @@
+// loads a path found in the in-memory projection: its nodes by element id, and for each
+// consecutive pair one relationship of the requested types and direction
+UNWIND range(0, size($nodeIds) - 2) AS i
+MATCH (a) WHERE elementId(a) = $nodeIds[i]
+MATCH (b) WHERE elementId(b) = $nodeIds[i + 1]
+CALL {
+  WITH a, b
+  MATCH (a)-[r]-(b)
+  WHERE (size($types) = 0 OR type(r) IN $types)
+    AND ($direction = 'BOTH'
+         OR ($direction = 'OUTGOING' AND startNode(r) = a)
+         OR ($direction = 'INCOMING' AND endNode(r) = a))
+  RETURN r
+  LIMIT 1
+}
+WITH i, a, b, r
+ORDER BY i
+WITH collect(a) + [last(collect(b))] AS nodes, collect(r) AS relationships
+// a node or relationship removed since the projection was built leaves a gap; no path then
+WHERE size(relationships) = size($nodeIds) - 1
+RETURN size(relationships) AS length,
+       [n IN nodes | {id: elementId(n), label: head(labels(n)), properties: n {.*, embedding: null}}] AS nodes,
+       [r IN relationships | {id: elementId(r), type: type(r), sourceId: elementId(startNode(r)),
+                              targetId: elementId(endNode(r)), properties: properties(r)}] AS relationships
@@ -0,0 +1,17 @@
+// relationships leaving the module's nodes; targets in other modules become leaf nodes of the projection
+CALL {
+  MATCH (s:Type {module: $module})-[r:DEPENDS_ON|DECLARES|EXPOSES_ENDPOINT]->(t)
+  RETURN s, r, t
+  UNION ALL
+  MATCH (s:Endpoint {module: $module})-[r:IMPLEMENTS]->(t)
+  RETURN s, r, t
+}
+RETURN head(labels(s)) AS sourceLabel, elementId(s) AS sourceId, s.module AS sourceModule,
+       CASE WHEN s:Method THEN s.fqcn + '#' + s.signature
+            WHEN s:Endpoint THEN s.httpMethod + ' ' + s.path
+            ELSE s.fqcn END AS sourceKey,
+       type(r) AS type,
+       head(labels(t)) AS targetLabel, elementId(t) AS targetId, t.module AS targetModule,
+       CASE WHEN t:Method THEN t.fqcn + '#' + t.signature
+            WHEN t:Endpoint THEN t.httpMethod + ' ' + t.path
+            ELSE t.fqcn END AS targetKey
@@ -0,0 +1,28 @@
+// loads an expansion computed in the in-memory projection: the hit chunks, the projected nodes by
+// element id and the relationships of $types between those nodes
+CALL {
+  UNWIND $chunkIds AS chunkId
+  MATCH (n:Chunk {id: chunkId})
+  RETURN n
+  UNION
+  UNWIND $nodeIds AS nodeId
+  MATCH (n) WHERE elementId(n) = nodeId
+  RETURN n
+}
+WITH collect(n) AS nodes
+CALL {
+  WITH nodes
+  UNWIND nodes AS n
+  RETURN 'node' AS kind, elementId(n) AS id, head(labels(n)) AS label, null AS type,
+         null AS sourceId, null AS targetId, n {.*, embedding: null} AS properties
+  UNION ALL
+  WITH nodes
+  UNWIND nodes AS n
+  MATCH (n)-[r]->(m)
+  WHERE type(r) IN $types AND m IN nodes
+  WITH r
+  LIMIT $maxRelationships
+  RETURN 'rel' AS kind, elementId(r) AS id, null AS label, type(r) AS type,
+         elementId(startNode(r)) AS sourceId, elementId(endNode(r)) AS targetId, properties(r) AS properties
+}
+RETURN kind, id, label, type, sourceId, targetId, properties
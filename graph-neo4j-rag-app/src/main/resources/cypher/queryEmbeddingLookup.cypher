@@ -0,0 +1,2 @@
+MATCH (q:QueryEmbedding {key: $key})
+RETURN q.embedding AS embedding, q.createdAt AS createdAt
@@ -0,0 +1,12 @@
+MERGE (q:QueryEmbedding {key: $key})
+SET q.model = $model,
+    q.embedding = $embedding,
+    q.createdAt = $createdAt
+WITH q
+// every write removes a batch of expired entries, so the tier never outgrows one ttl of questions
+CALL {
+  MATCH (expired:QueryEmbedding)
+  WHERE expired.createdAt < $expiredBefore
+  WITH expired LIMIT $purgeLimit
+  DETACH DELETE expired
+}
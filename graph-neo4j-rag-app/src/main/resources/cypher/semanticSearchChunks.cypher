@@ -1 +1,5 @@
-MATCH (m:Module)-[:CONTAINS]->(t:Type) RETURN m.name, t.fqcn LIMIT 25;
\ No newline at end of file
+CALL db.index.vector.queryNodes('chunk_embedding_idx', $candidates, $embedding) YIELD node, score
+WHERE $module IS NULL OR node.module = $module
+RETURN node {.*, embedding: null} AS properties, score
+ORDER BY score DESC
+LIMIT $topK
@@ -0,0 +1,6 @@
+MATCH (node:Chunk {module: $module})
+WHERE node.embedding IS NOT NULL
+WITH node, vector.similarity.cosine(node.embedding, $embedding) AS score
+RETURN node {.*, embedding: null} AS properties, score
+ORDER BY score DESC
+LIMIT $topK
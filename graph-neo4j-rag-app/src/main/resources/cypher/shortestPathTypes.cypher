@@ -0,0 +1,17 @@
+// source in any module, found through the Type.fqcn index; the module filter on the target keeps
+// duplicated FQCNs from multiplying the endpoint pairs, and both lists are capped
+MATCH (source:Type {fqcn: $sourceFqcn})
+WITH source LIMIT $maxEndpoints
+// few types share a fqcn, so the target is seeked by it and only then filtered by module
+MATCH (target:Type {fqcn: $targetFqcn})
+WHERE ($targetModule IS NULL OR target.module = $targetModule) AND target <> source
+WITH source, target LIMIT $maxEndpoints
+// path count, direction and depth bound must be literals; GraphController fills them in
+MATCH p = SHORTEST %1$d (source)(()%2$s() WHERE size($types) = 0 OR type(r) IN $types){1,%3$d}(target)
+WITH p
+ORDER BY length(p)
+LIMIT $limit
+RETURN length(p) AS length,
+       [n IN nodes(p) | {id: elementId(n), label: head(labels(n)), properties: n {.*, embedding: null}}] AS nodes,
+       [r IN relationships(p) | {id: elementId(r), type: type(r), sourceId: elementId(startNode(r)),
+                                 targetId: elementId(endNode(r)), properties: properties(r)}] AS relationships
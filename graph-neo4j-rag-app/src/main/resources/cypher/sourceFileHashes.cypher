@@ -0,0 +1,3 @@
+MATCH (:Module {name: $module})-[:HAS_FILE]->(f:SourceFile)
+RETURN f.path AS path,
+       f.hash AS hash
@@ -12,10 +12,18 @@ SET c.module = chunk.module,
     c.text = chunk.text,
     c.textHash = chunk.textHash,
     c.embeddingModel = chunk.embeddingModel,
-    c.embedding = chunk.embedding,
     c.updatedAt = timestamp()
-WITH c, coalesce(c._created, false) AS created
+FOREACH (_ IN CASE WHEN chunk.embedding IS NULL THEN [1] ELSE [] END | REMOVE c.embedding)
+WITH c, chunk, coalesce(c._created, false) AS created
 REMOVE c._created
+// stores the vector as a float32 array instead of the float64 list a plain SET would write
+CALL {
+    WITH c, chunk
+    WITH c, chunk
+    WHERE chunk.embedding IS NOT NULL
+    CALL db.create.setNodeVectorProperty(c, 'embedding', chunk.embedding)
+    RETURN count(*) AS vectors
+}
 WITH created
 RETURN sum(CASE WHEN created THEN 1 ELSE 0 END) AS created,
        sum(CASE WHEN created THEN 0 ELSE 1 END) AS updated
@@ -0,0 +1,13 @@
+UNWIND $files AS file
+MATCH (m:Module {name: file.module})
+MERGE (f:SourceFile {module: file.module, path: file.path})
+ON CREATE SET f._created = true,
+              f.createdAt = timestamp()
+SET f.hash = file.hash,
+    f.updatedAt = timestamp()
+MERGE (m)-[:HAS_FILE]->(f)
+WITH f, coalesce(f._created, false) AS created
+REMOVE f._created
+WITH created
+RETURN sum(CASE WHEN created THEN 1 ELSE 0 END) AS created,
+       sum(CASE WHEN created THEN 0 ELSE 1 END) AS updated
@@ -0,0 +1,78 @@
+package com.khalid698.tutorials.codegraph.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.khalid698.tutorials.codegraph.ai.dto.HitDTO;
+import com.khalid698.tutorials.codegraph.ai.dto.NodeDTO;
+
+class RankFusionTest {
+
+    private static HitDTO hit(String id, double score) {
+        return new HitDTO(score, new NodeDTO(id, "Chunk", Map.of("id", id)));
+    }
+
+    private static List<String> ids(List<HitDTO> hits) {
+        return hits.stream().map(hit -> hit.node().id()).toList();
+    }
+
+    @Test
+    void fullTextQuerySplitsDottedNamesAndLowerCases() {
+        assertThat(RankFusion.fullTextQuery("Where is OrderRepository.findByStatus called?"))
+                .isEqualTo("where OR orderrepository.findbystatus OR orderrepository OR findbystatus OR called");
+    }
+
+    @Test
+    void fullTextQueryNeutralisesOperatorsAndSpecialCharacters() {
+        assertThat(RankFusion.fullTextQuery("NOT this AND (that*) || \"other\""))
+                .isEqualTo("not OR this OR and OR that OR other");
+    }
+
+    @Test
+    void fullTextQueryDropsShortAndDuplicateTerms() {
+        assertThat(RankFusion.fullTextQuery("a an Order order ORDER")).isEqualTo("order");
+        assertThat(RankFusion.fullTextQuery("?! ")).isEmpty();
+        assertThat(RankFusion.fullTextQuery(null)).isEmpty();
+    }
+
+    @Test
+    void fullTextQueryIsCappedAt32Terms() {
+        StringBuilder question = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            question.append("term").append(i).append(' ');
+        }
+
+        assertThat(RankFusion.fullTextQuery(question.toString()).split(" OR ")).hasSize(32);
+    }
+
+    @Test
+    void fusePrefersHitsFoundByBothRankings() {
+        List<HitDTO> vector = List.of(hit("a", 0.95), hit("b", 0.90), hit("c", 0.85));
+        List<HitDTO> lexical = List.of(hit("c", 12.0), hit("b", 9.0), hit("d", 4.0));
+
+        List<HitDTO> fused = RankFusion.fuse(List.of(vector, lexical), 60, 10);
+
+        assertThat(ids(fused)).containsExactly("c", "b", "a", "d");
+        assertThat(fused.get(0).score()).isEqualTo(1.0 / 63 + 1.0 / 61);
+        assertThat(fused.get(1).score()).isEqualTo(1.0 / 62 + 1.0 / 62);
+        assertThat(fused.get(2).score()).isEqualTo(1.0 / 61);
+    }
+
+    @Test
+    void fuseKeepsTheTopKAndTheFirstSeenNode() {
+        HitDTO lexicalCopy = new HitDTO(3.0, new NodeDTO("a", "Chunk", Map.of("id", "a", "source", "lexical")));
+        List<HitDTO> fused = RankFusion.fuse(List.of(List.of(hit("a", 0.9), hit("b", 0.8)), List.of(lexicalCopy)), 60, 1);
+
+        assertThat(fused).hasSize(1);
+        assertThat(fused.get(0).node().properties()).doesNotContainKey("source");
+    }
+
+    @Test
+    void fuseOfEmptyRankingsIsEmpty() {
+        assertThat(RankFusion.fuse(List.of(List.of(), List.of()), 60, 5)).isEmpty();
+    }
+}
@@ -0,0 +1,139 @@
+package com.khalid698.tutorials.codegraph.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.khalid698.tutorials.codegraph.ai.GraphTraversal.Direction;
+import com.khalid698.tutorials.codegraph.projection.GraphProjection.RelationshipType;
+
+class GraphProjectionTest {
+
+    private static final int DEPENDS_ON = GraphProjection.mask(EnumSet.of(RelationshipType.DEPENDS_ON));
+    private static final int ALL = GraphProjection.mask(Set.of());
+
+    // a -> b -> c -> d, a -> c, e -> a; a declares a#run(); a exposes GET /a
+    private final GraphProjection projection = projection();
+
+    private static GraphProjection projection() {
+        GraphProjection.Builder builder = GraphProjection.builder("shop", 7);
+        int a = builder.addNode("Type", "4:a", "shop", "com.acme.A");
+        int b = builder.addNode("Type", "4:b", "shop", "com.acme.B");
+        int c = builder.addNode("Type", "4:c", "shop", "com.acme.C");
+        int d = builder.addNode("Type", "4:d", "lib", "com.lib.D");
+        int e = builder.addNode("Type", "4:e", "shop", "com.acme.E");
+        int run = builder.addNode("Method", "4:run", "shop", "com.acme.A#run()");
+        int endpoint = builder.addNode("Endpoint", "4:get", "shop", "GET /a");
+        builder.addRelationship(RelationshipType.DEPENDS_ON, a, b);
+        builder.addRelationship(RelationshipType.DEPENDS_ON, b, c);
+        builder.addRelationship(RelationshipType.DEPENDS_ON, c, d);
+        builder.addRelationship(RelationshipType.DEPENDS_ON, a, c);
+        builder.addRelationship(RelationshipType.DEPENDS_ON, e, a);
+        builder.addRelationship(RelationshipType.DECLARES, a, run);
+        builder.addRelationship(RelationshipType.EXPOSES_ENDPOINT, a, endpoint);
+        builder.addRelationship(RelationshipType.IMPLEMENTS, endpoint, run);
+        return builder.build();
+    }
+
+    private int type(String fqcn) {
+        return projection.find("Type", fqcn);
+    }
+
+    private String[] keys(int[] ids) {
+        return projection.nodes(ids).stream().map(ProjectedNode::key).toArray(String[]::new);
+    }
+
+    @Test
+    void buildsCompressedRowsForBothDirections() {
+        assertThat(projection.nodeCount()).isEqualTo(7);
+        assertThat(projection.relationshipCount()).isEqualTo(8);
+        assertThat(projection.version()).isEqualTo(7L);
+        assertThat(keys(projection.neighbourhood(type("com.acme.A"), 1, ALL, Direction.OUTGOING)))
+                .containsExactlyInAnyOrder("com.acme.B", "com.acme.C", "com.acme.A#run()", "GET /a");
+        assertThat(keys(projection.neighbourhood(type("com.acme.C"), 1, ALL, Direction.INCOMING)))
+                .containsExactlyInAnyOrder("com.acme.A", "com.acme.B");
+        assertThat(keys(projection.neighbourhood(type("com.lib.D"), 1, ALL, Direction.OUTGOING))).isEmpty();
+    }
+
+    @Test
+    void addsEachNodeOnceAndIgnoresUnknownLabels() {
+        GraphProjection.Builder builder = GraphProjection.builder("shop", 1);
+        int first = builder.addNode("Type", "4:a", "shop", "com.acme.A");
+        assertThat(builder.addNode("Type", "4:a", "shop", "com.acme.A")).isEqualTo(first);
+        assertThat(builder.addNode("Chunk", "4:x", "shop", "chunk-1")).isEqualTo(-1);
+        builder.addRelationship(RelationshipType.DEPENDS_ON, first, -1);
+        GraphProjection built = builder.build();
+
+        assertThat(built.nodeCount()).isEqualTo(1);
+        assertThat(built.relationshipCount()).isZero();
+        assertThat(built.node(first)).isEqualTo(new ProjectedNode("4:a", "Type", "shop", "com.acme.A"));
+        assertThat(built.elementId(first)).isEqualTo("4:a");
+    }
+
+    @Test
+    void growsBeyondTheInitialCapacity() {
+        GraphProjection.Builder builder = GraphProjection.builder("big", 1);
+        int previous = builder.addNode("Type", "0", "big", "T0");
+        for (int i = 1; i < 5000; i++) {
+            int next = builder.addNode("Type", String.valueOf(i), "big", "T" + i);
+            builder.addRelationship(RelationshipType.DEPENDS_ON, previous, next);
+            previous = next;
+        }
+        GraphProjection built = builder.build();
+
+        assertThat(built.nodeCount()).isEqualTo(5000);
+        assertThat(built.relationshipCount()).isEqualTo(4999);
+        assertThat(built.shortestPath(built.find("Type", "T0"), built.find("Type", "T4999"), DEPENDS_ON, Direction.OUTGOING, 5000))
+                .hasSize(5000);
+    }
+
+    @Test
+    void findsTheShortestPath() {
+        int[] path = projection.shortestPath(type("com.acme.A"), type("com.lib.D"), DEPENDS_ON, Direction.OUTGOING, 5);
+
+        assertThat(keys(path)).containsExactly("com.acme.A", "com.acme.C", "com.lib.D");
+    }
+
+    @Test
+    void shortestPathRespectsDirectionDepthAndTypes() {
+        int a = type("com.acme.A");
+        int d = type("com.lib.D");
+
+        assertThat(projection.shortestPath(d, a, DEPENDS_ON, Direction.OUTGOING, 5)).isEmpty();
+        assertThat(keys(projection.shortestPath(d, a, DEPENDS_ON, Direction.INCOMING, 5)))
+                .containsExactly("com.lib.D", "com.acme.C", "com.acme.A");
+        assertThat(projection.shortestPath(a, d, DEPENDS_ON, Direction.OUTGOING, 1)).isEmpty();
+        assertThat(projection.shortestPath(a, d, GraphProjection.mask(EnumSet.of(RelationshipType.DECLARES)), Direction.OUTGOING, 5))
+                .isEmpty();
+        assertThat(projection.shortestPath(a, a, DEPENDS_ON, Direction.OUTGOING, 5)).containsExactly(a);
+    }
+
+    @Test
+    void neighbourhoodIsBreadthFirstWithinHops() {
+        int e = type("com.acme.E");
+
+        assertThat(keys(projection.neighbourhood(e, 1, DEPENDS_ON, Direction.OUTGOING))).containsExactly("com.acme.A");
+        String[] twoHops = keys(projection.neighbourhood(e, 2, DEPENDS_ON, Direction.OUTGOING));
+        assertThat(twoHops).hasSize(3).startsWith("com.acme.A").contains("com.acme.B", "com.acme.C");
+        assertThat(keys(projection.neighbourhood(e, 10, DEPENDS_ON, Direction.OUTGOING))).endsWith("com.lib.D").hasSize(4);
+        assertThat(projection.neighbourhood(e, 0, DEPENDS_ON, Direction.OUTGOING)).isEmpty();
+    }
+
+    @Test
+    void neighbourhoodOfSeveralSeedsExcludesTheSeeds() {
+        int[] seeds = {type("com.acme.B"), type("com.acme.E"), type("com.acme.B")};
+
+        assertThat(keys(projection.neighbourhood(seeds, 1, DEPENDS_ON, Direction.BOTH)))
+                .containsExactlyInAnyOrder("com.acme.A", "com.acme.C");
+    }
+
+    @Test
+    void findReturnsMinusOneForUnknownKeys() {
+        assertThat(projection.find("Type", "com.acme.Missing")).isEqualTo(-1);
+        assertThat(projection.find("Method", "com.acme.A")).isEqualTo(-1);
+        assertThat(projection.node(projection.find("Method", "com.acme.A#run()")).label()).isEqualTo("Method");
+    }
+}